@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package bench;
+
+/**
+ * Representative inputs for the benchmarks, one set of messages per kind of markup.
+ */
+final class Corpus {
+
+    // everyday chat, mostly free of markup
+    static final String[] CHAT = {
+            "hello everyone",
+            "anyone want to go mining later? I found a cave near spawn",
+            "gg, that was close",
+            "check out the new shop at /warp market, prices are *really* low",
+            "brb 5 mins",
+            "[dags](gold): welcome to the server!",
+            "lol no way",
+            "does anyone have a spare diamond pickaxe? I'll pay 50 gold",
+    };
+
+    // chat without any markup at all, which is most of it on a busy server
+    static final String[] PLAIN = {
+            "hello everyone",
+            "anyone want to go mining later? I found a cave near spawn",
+            "gg, that was close",
+            "brb 5 mins",
+            "lol no way",
+            "does anyone have a spare diamond pickaxe? I'll pay 50 gold",
+            "where is the nether portal (the one by the lake)?",
+            "ok thanks! see you all tomorrow :)",
+    };
+
+    // elements nested within elements, as found in formatted announcements
+    static final String[] NESTED = {
+            "[[[Server](gold,bold) [restarting](red) in [[5](bold) minutes](yellow)](italic)](/say ok)",
+            "[a [b [c [d [e](red)](blue)](green)](gold)](aqua)",
+            "[[Rules](bold,underline): [[1.](gray) be nice [2.](gray) no griefing](white)](/rules)",
+            "[[[[[[[[deep](red)](blue)](green)](gold)](aqua)](gray)](white)](black)",
+            "[[Vote](green,/vote) | [Shop](gold,/shop) | [Discord](blue,https://discord.gg/abc)](bold)",
+    };
+
+    // help pages where most elements carry hover text
+    static final String[] HOVER = {
+            "[/home](gold,/home,Teleports you to your [home](green))",
+            "[/spawn](gold,/spawn,Teleports you to spawn) [/warp](gold,//warp ,Lists the [warps](aqua) you can use)",
+            "[/tpa <player>](gold,//tpa ,[Request](green) a teleport to another player\nThey must [accept](bold) it)",
+            "[/msg <player> <message>](gold,//msg ,Sends a private message)",
+            "[Help](bold,[Commands](gold): [/home](gray,Teleport home) [/spawn](gray,Teleport to spawn))",
+    };
+
+    // messages relying on markdown presets rather than explicit elements
+    static final String[] PRESET = {
+            "this is *important* and _this_ is ~~wrong~~",
+            "**bold** and *italic* and __underlined__ and `code`",
+            "*a _b ~~c~~ b_ a* *a _b ~~c~~ b_ a* *a _b ~~c~~ b_ a*",
+            "[click *here*](red,/say hi) to say _hi_ to **everyone**",
+            "unclosed *star and _underscore but ~~closed strike~~",
+    };
+
+    private Corpus() {}
+
+    static String[] get(String name) {
+        switch (name) {
+            case "plain":
+                return PLAIN;
+            case "chat":
+                return CHAT;
+            case "nested":
+                return NESTED;
+            case "hover":
+                return HOVER;
+            case "preset":
+                return PRESET;
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + name);
+        }
+    }
+}
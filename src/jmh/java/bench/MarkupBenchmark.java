@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package bench;
+
+import impl.Init;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.Renderer;
+import me.dags.text.syntax.Writer;
+import me.dags.text.template.MUTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spongepowered.api.text.Text;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each stage of the pipeline over the messages of a corpus.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MarkupBenchmark {
+
+    @Param({"chat", "nested", "hover", "preset"})
+    public String corpus;
+
+    private String[] messages;
+    private Text[] texts;
+    private MUTemplate template;
+
+    @Setup
+    public void setup() throws IOException {
+        Init.init();
+        messages = Corpus.get(corpus);
+        texts = new Text[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            texts[i] = Parser.parse(messages[i], MUPresets.MARKDOWN, MUPerms.ANY).build();
+        }
+        template = MUSpec.create(MUPresets.MARKDOWN).template("[{name}](gold,/msg {name}): {message}");
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        for (String message : messages) {
+            blackhole.consume(Parser.parse(message, MUPresets.MARKDOWN, MUPerms.ANY).build());
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) throws IOException {
+        for (Text text : texts) {
+            blackhole.consume(Renderer.render(text, MUPresets.MARKDOWN, MULimits.DEFAULT, MUPerms.ANY).build());
+        }
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) throws IOException {
+        for (Text text : texts) {
+            StringWriter writer = new StringWriter();
+            new Writer(writer).write(text, true);
+            blackhole.consume(writer.toString());
+        }
+    }
+
+    @Benchmark
+    public void apply(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(MUPresets.MARKDOWN.apply(message, MUPerms.ANY));
+        }
+    }
+
+    @Benchmark
+    public void template(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(template.with("name", "dags").with("message", message).render());
+        }
+    }
+}
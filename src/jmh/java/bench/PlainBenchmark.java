@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package bench;
+
+import impl.Init;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Parser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering through the spec, which returns input free of markup as is, against parsing every message.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlainBenchmark {
+
+    @Param({"plain", "chat"})
+    public String corpus;
+
+    private String[] messages;
+    private MUSpec spec;
+
+    @Setup
+    public void setup() {
+        Init.init();
+        messages = Corpus.get(corpus);
+        spec = MUSpec.create(MUPresets.MARKDOWN);
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(spec.render(MUPerms.ANY, message));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws IOException {
+        for (String message : messages) {
+            blackhole.consume(Parser.parse(message, MUPresets.MARKDOWN, MUPerms.ANY).build());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package bench;
+
+import impl.Init;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.template.MUTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spongepowered.api.text.Text;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a chat format through its compiled template against rendering the template's output as a string,
+ * and with a Text argument spliced in against writing it as markup to be parsed again.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TemplateBenchmark {
+
+    @Param({"plain", "chat"})
+    public String corpus;
+
+    @Param({"[{name}](gold,/msg {name}): {message}", "[{name}](gold,/msg {name},Click to message {name}): {message}"})
+    public String format;
+
+    private String[] messages;
+    private MUSpec spec;
+    private MUTemplate template;
+    private Text name;
+
+    @Setup
+    public void setup() {
+        Init.init();
+        messages = Corpus.get(corpus);
+        spec = MUSpec.create(MUPresets.MARKDOWN);
+        template = spec.template(format);
+        name = spec.render("[dags](red,bold)");
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(template.with("name", "dags").with("message", message).render());
+        }
+    }
+
+    @Benchmark
+    public void rendered(Blackhole blackhole) throws IOException {
+        for (String message : messages) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("name", "dags");
+            arguments.put("message", message);
+            StringWriter writer = new StringWriter();
+            template.apply(arguments, writer);
+            blackhole.consume(spec.render(MUPerms.ANY, writer.toString()));
+        }
+    }
+
+    @Benchmark
+    public void spliced(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(template.with("name", name).with("message", message).render());
+        }
+    }
+
+    @Benchmark
+    public void written(Blackhole blackhole) throws IOException {
+        for (String message : messages) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("name", spec.write(name));
+            arguments.put("message", message);
+            StringWriter writer = new StringWriter();
+            template.apply(arguments, writer);
+            blackhole.consume(spec.render(MUPerms.ANY, writer.toString()));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package me.dags.text;
+
+import me.dags.text.syntax.Property;
+
+/**
+ * Accumulates the cost of the renders it is passed to, and stops them early once the cost
+ * exceeds the limit. Input that can't be parsed within the budget is rendered as plain text,
+ * and once permission checks exhaust it any remaining properties are left unapplied.
+ * A budget can be kept per subject and reused across renders (it is not thread safe).
+ */
+public final class MUBudget {
+
+    public static final long CHAR_COST = 1;
+    public static final long NODE_COST = 16;
+    public static final long HOVER_COST = 64;
+    public static final long CHECK_COST = 1;
+
+    private final long limit;
+    private long chars = 0;
+    private long nodes = 0;
+    private long hovers = 0;
+    private long checks = 0;
+
+    private MUBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * The number of input characters scanned, including those of hover text
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * The number of [elements] created
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The number of hovers parsed (hovers served from cache are free)
+     */
+    public long getHovers() {
+        return hovers;
+    }
+
+    /**
+     * The number of permission checks made
+     */
+    public long getChecks() {
+        return checks;
+    }
+
+    public long getCost() {
+        return chars * CHAR_COST + nodes * NODE_COST + hovers * HOVER_COST + checks * CHECK_COST;
+    }
+
+    public long getRemaining() {
+        return Math.max(0, limit - getCost());
+    }
+
+    public boolean isExhausted() {
+        return getCost() > limit;
+    }
+
+    public void reset() {
+        chars = 0;
+        nodes = 0;
+        hovers = 0;
+        checks = 0;
+    }
+
+    // the add methods return false once the budget is exhausted
+
+    public boolean addChars(long count) {
+        chars += count;
+        return !isExhausted();
+    }
+
+    public boolean addNodes(long count) {
+        nodes += count;
+        return !isExhausted();
+    }
+
+    public boolean addHovers(long count) {
+        hovers += count;
+        return !isExhausted();
+    }
+
+    public boolean addChecks(long count) {
+        checks += count;
+        return !isExhausted();
+    }
+
+    /**
+     * Wraps the predicate so that each check it makes is charged to this budget, denying any
+     * checks made once the budget is exhausted
+     */
+    public Property.Predicate wrap(Property.Predicate predicate) {
+        return new Counted(this, unwrap(predicate));
+    }
+
+    public static Property.Predicate unwrap(Property.Predicate predicate) {
+        return predicate instanceof Counted ? ((Counted) predicate).predicate : predicate;
+    }
+
+    /**
+     * Returns true if the predicate charges its checks to a budget that has run out, in which case
+     * anything built with it may be missing properties and shouldn't be cached
+     */
+    public static boolean isExhausted(Property.Predicate predicate) {
+        return predicate instanceof Counted && ((Counted) predicate).budget.isExhausted();
+    }
+
+    public static MUBudget of(long limit) {
+        return new MUBudget(limit);
+    }
+
+    public static MUBudget unlimited() {
+        return new MUBudget(Long.MAX_VALUE);
+    }
+
+    // caches key on the unwrapped predicate so that budgeted renders share entries with unbudgeted ones
+    private static final class Counted implements Property.Predicate {
+
+        private final MUBudget budget;
+        private final Property.Predicate predicate;
+
+        private Counted(MUBudget budget, Property.Predicate predicate) {
+            this.budget = budget;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(Object property) {
+            return budget.addChecks(1) && predicate.test(property);
+        }
+
+        @Override
+        public boolean test(Property property) {
+            return budget.addChecks(1) && predicate.test(property);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Counted && predicate.equals(((Counted) o).predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return predicate.hashCode();
+        }
+    }
+}
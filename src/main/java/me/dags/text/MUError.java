@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text;
+
+/**
+ * A problem found when validating markup, covering the chars [start, end) of the input.
+ */
+public final class MUError {
+
+    public enum Type {
+        /**
+         * A [ with no matching ], shown as plain text
+         */
+        UNCLOSED_ELEMENT,
+        /**
+         * A property list with no closing ), shown as plain text
+         */
+        UNCLOSED_PROPERTIES,
+        /**
+         * A property that is dropped, such as an empty property or a url with no scheme
+         */
+        UNKNOWN_PROPERTY,
+        /**
+         * A property that the predicate does not permit
+         */
+        DENIED_PROPERTY,
+        /**
+         * The input breaks the spec's limits so is shown as plain text
+         */
+        LIMIT_EXCEEDED,
+    }
+
+    private final Type type;
+    private final int start;
+    private final int end;
+    private final String message;
+
+    public MUError(Type type, int start, int end, String message) {
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.message = message;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return type + "[" + start + "," + end + "]: " + message;
+    }
+}
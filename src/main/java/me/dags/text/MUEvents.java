@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text;
+
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits a Java Flight Recorder event (me.dags.text.SlowMarkup) for any markup operation that takes
+ * longer than the threshold. Events carry the spec id, input length, node and hover counts, and a
+ * hash of the input rather than the input itself. Operations are only timed while a recording is
+ * running, and nothing is done on JVMs without the jdk.jfr API.
+ */
+public final class MUEvents {
+
+    private static final boolean AVAILABLE = available();
+
+    private static volatile boolean recording = false;
+    private static volatile long threshold = TimeUnit.MILLISECONDS.toNanos(10);
+
+    static {
+        if (AVAILABLE) {
+            SlowMarkupEvent.listen();
+        }
+    }
+
+    private MUEvents() {}
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    public static long getThreshold(TimeUnit unit) {
+        return unit.convert(threshold, TimeUnit.NANOSECONDS);
+    }
+
+    public static void setThreshold(long duration, TimeUnit unit) {
+        threshold = unit.toNanos(duration);
+    }
+
+    /**
+     * Returns the start time to later pass to commit(), or 0 when nothing is recording
+     */
+    public static long start() {
+        return recording ? System.nanoTime() : 0L;
+    }
+
+    public static void commit(String operation, String spec, long start, String input, int nodes, int hovers) {
+        if (start != 0L) {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= threshold) {
+                SlowMarkupEvent.emit(operation, spec, elapsed, input.length(), hash(input), nodes, hovers);
+            }
+        }
+    }
+
+    public static void commit(String operation, String spec, long start, Text input, int nodes, int hovers) {
+        // the plain text is only worked out for the (rare) slow operations
+        if (start != 0L && System.nanoTime() - start >= threshold) {
+            commit(operation, spec, start, input.toPlain(), nodes, hovers);
+        }
+    }
+
+    static void setRecording(boolean running) {
+        recording = running;
+    }
+
+    // FNV-1a, stable across JVMs unlike identity or seeded hashes
+    static long hash(CharSequence input) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < input.length(); i++) {
+            hash ^= input.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static boolean available() {
+        try {
+            Class.forName("jdk.jfr.Event", false, MUEvents.class.getClassLoader());
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+}
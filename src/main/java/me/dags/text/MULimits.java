@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package me.dags.text;
+
+/**
+ * Bounds on the work a single input may cause. Input that breaks a limit is rendered as plain
+ * text, except hovers nested deeper than maxHoverDepth, which show their source as plain text.
+ */
+public final class MULimits {
+
+    public static final MULimits NONE = builder()
+            .maxLength(Integer.MAX_VALUE)
+            .maxDepth(Integer.MAX_VALUE)
+            .maxNodes(Integer.MAX_VALUE)
+            .maxHoverDepth(Integer.MAX_VALUE)
+            .build();
+
+    public static final MULimits DEFAULT = builder().build();
+
+    private final int maxLength;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final int maxHoverDepth;
+
+    private MULimits(Builder builder) {
+        this.maxLength = builder.maxLength;
+        this.maxDepth = builder.maxDepth;
+        this.maxNodes = builder.maxNodes;
+        this.maxHoverDepth = builder.maxHoverDepth;
+    }
+
+    /**
+     * The maximum number of chars in an input
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * The maximum nesting of [elements], and separately of presets within a piece of text
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * The maximum number of [elements] in an input, including those inside its hovers
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * The maximum nesting of hovers within hovers
+     */
+    public int getMaxHoverDepth() {
+        return maxHoverDepth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MULimits limits = (MULimits) o;
+        return maxLength == limits.maxLength
+                && maxDepth == limits.maxDepth
+                && maxNodes == limits.maxNodes
+                && maxHoverDepth == limits.maxHoverDepth;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxLength;
+        result = 31 * result + maxDepth;
+        result = 31 * result + maxNodes;
+        result = 31 * result + maxHoverDepth;
+        return result;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxLength = 32767;
+        private int maxDepth = 32;
+        private int maxNodes = 1024;
+        private int maxHoverDepth = 4;
+
+        public Builder maxLength(int maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder maxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        public Builder maxHoverDepth(int maxHoverDepth) {
+            this.maxHoverDepth = maxHoverDepth;
+            return this;
+        }
+
+        public MULimits build() {
+            return new MULimits(this);
+        }
+    }
+}
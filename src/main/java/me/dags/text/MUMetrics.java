@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text;
+
+import com.google.common.cache.CacheStats;
+import org.spongepowered.api.command.CommandResult;
+import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latency histograms for the operations of an MUSpec. Latencies are bucketed by powers
+ * of two so recording is a handful of uncontended atomic adds. The NONE instance records nothing
+ * and doesn't read the clock.
+ */
+public final class MUMetrics {
+
+    public static final MUMetrics NONE = new MUMetrics(false);
+
+    public enum Operation {
+        RENDER,
+        RENDER_TEXT,
+        WRITE,
+        TEMPLATE,
+        // each run of text whose presets are expanded while rendering, and each call to applyPresets
+        PRESET,
+    }
+
+    private final boolean enabled;
+    private final Recorder[] recorders;
+
+    private MUMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.recorders = new Recorder[enabled ? Operation.values().length : 0];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the start time to later pass to record()
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void record(Operation operation, long start) {
+        if (enabled) {
+            recorders[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public Stats getStats(Operation operation) {
+        return enabled ? recorders[operation.ordinal()].stats() : Stats.EMPTY;
+    }
+
+    public void reset() {
+        for (Recorder recorder : recorders) {
+            recorder.reset();
+        }
+    }
+
+    public static MUMetrics create() {
+        return new MUMetrics(true);
+    }
+
+    /**
+     * A command that lists the metrics and cache stats of each of the given specs
+     */
+    public static CommandSpec command(String permission, MUSpec... specs) {
+        return CommandSpec.builder()
+                .description(Text.of("Shows markup rendering metrics"))
+                .permission(permission)
+                .executor((src, args) -> {
+                    for (MUSpec spec : specs) {
+                        src.sendMessage(Text.of(spec.getId() + ":"));
+                        MUMetrics metrics = spec.getMetrics();
+                        if (!metrics.isEnabled()) {
+                            src.sendMessage(Text.of("  metrics disabled"));
+                        } else {
+                            for (Operation operation : Operation.values()) {
+                                Stats stats = metrics.getStats(operation);
+                                if (stats.getCount() > 0) {
+                                    src.sendMessage(Text.of("  " + operation.name().toLowerCase() + ": " + stats));
+                                }
+                            }
+                        }
+                        if (spec.isCached()) {
+                            CacheStats cache = spec.getCacheStats();
+                            src.sendMessage(Text.of(String.format("  cache: hits=%d misses=%d hitRate=%.2f evictions=%d",
+                                    cache.hitCount(), cache.missCount(), cache.hitRate(), cache.evictionCount())));
+                        }
+                    }
+                    return CommandResult.success();
+                })
+                .build();
+    }
+
+    public static final class Stats {
+
+        private static final Stats EMPTY = new Stats(0, 0, 0, new long[Recorder.BUCKETS]);
+
+        private final long count;
+        private final long total;
+        private final long max;
+        private final long[] buckets;
+
+        private Stats(long count, long total, long max, long[] buckets) {
+            this.count = count;
+            this.total = total;
+            this.max = max;
+            this.buckets = buckets;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotal(TimeUnit unit) {
+            return unit.convert(total, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMax(TimeUnit unit) {
+            return unit.convert(max, TimeUnit.NANOSECONDS);
+        }
+
+        public long getMean(TimeUnit unit) {
+            return count == 0 ? 0 : unit.convert(total / count, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * An upper bound on the given percentile (0-100), accurate to within a factor of two
+         */
+        public long getPercentile(double percentile, TimeUnit unit) {
+            long target = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100D);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target && seen > 0) {
+                    long bound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                    return unit.convert(Math.min(bound, max), TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%dus p50=%dus p99=%dus max=%dus",
+                    count,
+                    getMean(TimeUnit.MICROSECONDS),
+                    getPercentile(50, TimeUnit.MICROSECONDS),
+                    getPercentile(99, TimeUnit.MICROSECONDS),
+                    getMax(TimeUnit.MICROSECONDS)
+            );
+        }
+    }
+
+    private static final class Recorder {
+
+        // bucket i holds latencies in [2^i, 2^(i+1)) nanoseconds
+        private static final int BUCKETS = 64;
+
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            total.add(nanos);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+            long current;
+            while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+                // retry
+            }
+        }
+
+        private Stats stats() {
+            long[] counts = new long[BUCKETS];
+            long sum = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                sum += counts[i];
+            }
+            // count is taken from the buckets so that percentiles add up under concurrent recording
+            return new Stats(sum, total.sum(), max.get(), counts);
+        }
+
+        private void reset() {
+            total.reset();
+            max.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+    }
+}
@@ -25,6 +25,8 @@
 
 package me.dags.text;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import me.dags.text.preset.MUPresets;
 import me.dags.text.preset.MUStyle;
@@ -33,11 +35,25 @@ import org.spongepowered.api.service.permission.Subject;
 import org.spongepowered.api.text.format.TextColor;
 import org.spongepowered.api.text.format.TextStyle;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class MUPerms {
 
+    // declared ahead of DEFAULTS, which registers its permissions while the class initializes
+    private static final Map<Object, Integer> IDS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
     public static final MUPerms DEFAULTS = MUPerms.of("text");
     public static final Property.Predicate ANY = property -> true;
     public static final Property.Predicate NONE = property -> false;
@@ -48,24 +64,87 @@ public class MUPerms {
     public static final String SUGGESTION = "suggestion";
 
     private final String base;
+    private final long expiry;
     private final Map<Object, String> nodes;
+    private final String[] permissions;
+    private final int[][] grants;
+    // the index into permissions of the node that grants each id, or -1 for ids it knows nothing of
+    private final int[] granters;
+    private final long[] always;
+    @Nullable
+    private final Cache<Subject, Snapshot> snapshots;
 
     private MUPerms(Builder builder) {
+        // the ids of the properties each distinct node grants, so a subject is asked about each node once
+        Map<String, List<Integer>> grants = new LinkedHashMap<>();
+        List<Integer> always = new ArrayList<>();
+        int max = -1;
+        for (Map.Entry<Object, String> entry : builder.nodes.entrySet()) {
+            int id = id(entry.getKey());
+            String node = entry.getValue();
+            if (node.isEmpty()) {
+                always.add(id);
+            } else {
+                grants.computeIfAbsent(node, n -> new ArrayList<>()).add(id);
+            }
+            max = Math.max(max, id);
+        }
         this.base = builder.base;
+        this.expiry = builder.expiry;
         this.nodes = ImmutableMap.copyOf(builder.nodes);
+        this.permissions = grants.keySet().toArray(new String[grants.size()]);
+        this.grants = new int[permissions.length][];
+        for (int i = 0; i < permissions.length; i++) {
+            this.grants[i] = grants.get(permissions[i]).stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.granters = new int[max + 1];
+        Arrays.fill(granters, -1);
+        for (int i = 0; i < permissions.length; i++) {
+            for (int id : this.grants[i]) {
+                granters[id] = i;
+            }
+        }
+        this.always = new long[(max + 64) >>> 6];
+        for (int id : always) {
+            this.always[id >>> 6] |= 1L << id;
+        }
+        this.snapshots = expiry <= 0 ? null : CacheBuilder.newBuilder().weakKeys().expireAfterWrite(expiry, TimeUnit.MILLISECONDS).build();
     }
 
+    /**
+     * Returns a permission Snapshot of the given subject. A new Snapshot is taken on each call, and
+     * asks the subject about each node the first time it's tested, so a render only checks the
+     * nodes its markup uses. If the Builder opted in to caching them with expireSnapshotsAfter, a
+     * subject's completed Snapshot is reused until it expires or is invalidated instead.
+     */
     public Property.Predicate wrap(Subject subject) {
-        return property -> {
-            String node = nodes.get(property);
-            if (node == null) {
-                return false;
-            }
-            if (node.isEmpty()) {
-                return true;
-            }
-            return subject.hasPermission(node);
-        };
+        return snapshot(subject);
+    }
+
+    public Snapshot snapshot(Subject subject) {
+        if (snapshots == null) {
+            return new Snapshot(this, subject);
+        }
+        Snapshot snapshot = snapshots.getIfPresent(subject);
+        if (snapshot == null) {
+            // completed so that the cached value doesn't hold on to its (weakly held) key
+            snapshot = new Snapshot(this, subject);
+            snapshot.complete();
+            snapshots.put(subject, snapshot);
+        }
+        return snapshot;
+    }
+
+    public void invalidate(Subject subject) {
+        if (snapshots != null) {
+            snapshots.invalidate(subject);
+        }
+    }
+
+    public void invalidateAll() {
+        if (snapshots != null) {
+            snapshots.invalidateAll();
+        }
     }
 
     MUPerms withPresets(MUPresets stylesheet) {
@@ -74,11 +153,25 @@ public class MUPerms {
         } else {
             Builder builder = new Builder(base);
             builder.nodes.putAll(nodes);
-            stylesheet.getStyles().values().forEach(builder::preset);
+            builder.expiry = expiry;
+            stylesheet.getDelimitedStyles().values().forEach(builder::preset);
             return builder.build();
         }
     }
 
+    /**
+     * Returns the id the given permission object (a TextColor, TextStyle, preset name, or one of
+     * the action names) is known by in every Snapshot, assigning one if it doesn't have one yet.
+     * Property.of records its permission's id so that Snapshots can test it without a lookup.
+     */
+    public static int id(Object permission) {
+        Integer id = IDS.get(permission);
+        if (id == null) {
+            id = IDS.computeIfAbsent(permission, p -> NEXT_ID.getAndIncrement());
+        }
+        return id;
+    }
+
     public static Builder builder(String base) {
         if (base.endsWith(".")) {
             base = base.substring(0, base.length() - 2);
@@ -97,11 +190,128 @@ public class MUPerms {
         return builder.build();
     }
 
+    /**
+     * A record of which of its MUPerms' nodes a subject holds. Nodes are checked the first time
+     * they're tested and remembered from then on. Snapshots of the same MUPerms are equal if they
+     * hold the same nodes, so they can be used to key caches by permission class; comparing or
+     * hashing a Snapshot completes it, checking every node it hasn't yet. A completed Snapshot
+     * records only the bits, not the subject.
+     */
+    public static final class Snapshot implements Property.Predicate {
+
+        private final MUPerms perms;
+        private final AtomicLongArray known;
+        private final AtomicLongArray granted;
+        // null once complete
+        private volatile Subject subject;
+        private volatile long[] bits;
+
+        private Snapshot(MUPerms perms, Subject subject) {
+            this.perms = perms;
+            this.known = new AtomicLongArray(perms.always);
+            this.granted = new AtomicLongArray(perms.always);
+            this.subject = subject;
+        }
+
+        @Override
+        public boolean test(Property property) {
+            return test(property.getPermissionId());
+        }
+
+        @Override
+        public boolean test(Object property) {
+            Integer id = IDS.get(property);
+            return id != null && test(id.intValue());
+        }
+
+        private boolean test(int id) {
+            if (id < 0 || id >= perms.granters.length) {
+                return false;
+            }
+            int word = id >>> 6;
+            long bit = 1L << id;
+            if ((known.get(word) & bit) == 0) {
+                int node = perms.granters[id];
+                if (node == -1) {
+                    return false;
+                }
+                check(node);
+            }
+            return (granted.get(word) & bit) != 0;
+        }
+
+        // asks the subject about the node, recording the answer for every id it grants
+        private synchronized void check(int node) {
+            int first = perms.grants[node][0];
+            Subject subject = this.subject;
+            if (subject == null || (known.get(first >>> 6) & (1L << first)) != 0) {
+                return;
+            }
+            if (subject.hasPermission(perms.permissions[node])) {
+                for (int id : perms.grants[node]) {
+                    set(granted, id);
+                }
+            }
+            // known is set after granted, so a reader that sees one sees the other
+            for (int id : perms.grants[node]) {
+                set(known, id);
+            }
+        }
+
+        private long[] complete() {
+            long[] result = bits;
+            if (result == null) {
+                synchronized (this) {
+                    result = bits;
+                    if (result == null) {
+                        for (int node = 0; node < perms.permissions.length; node++) {
+                            check(node);
+                        }
+                        result = new long[granted.length()];
+                        for (int i = 0; i < result.length; i++) {
+                            result[i] = granted.get(i);
+                        }
+                        bits = result;
+                        subject = null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static void set(AtomicLongArray bits, int id) {
+            int word = id >>> 6;
+            long bit = 1L << id;
+            long value;
+            do {
+                value = bits.get(word);
+            } while (!bits.compareAndSet(word, value, value | bit));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Snapshot snapshot = (Snapshot) o;
+            return perms == snapshot.perms && Arrays.equals(complete(), snapshot.complete());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(perms) + Arrays.hashCode(complete());
+        }
+    }
+
     public static class Builder {
 
         private final Map<Object, String> nodes = new HashMap<>();
 
         private final String base;
+        private long expiry = 0L;
 
         public Builder(String base) {
             this.base = base;
@@ -129,6 +339,16 @@ public class MUPerms {
             return this;
         }
 
+        /**
+         * Caches each subject's Snapshot for the given duration so that repeated renders don't
+         * re-check its permissions. Permission changes made within that window are not seen until
+         * the Snapshot expires or is invalidated. A duration of zero (the default) disables caching.
+         */
+        public Builder expireSnapshotsAfter(long duration, TimeUnit unit) {
+            expiry = unit.toMillis(duration);
+            return this;
+        }
+
         public MUPerms build() {
             return new MUPerms(this);
         }
@@ -25,12 +25,18 @@
 
 package me.dags.text;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import me.dags.template.CharReader;
 import me.dags.template.Template;
 import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.HoverCache;
+import me.dags.text.syntax.Node;
 import me.dags.text.syntax.Parser;
 import me.dags.text.syntax.Property;
 import me.dags.text.syntax.Renderer;
+import me.dags.text.syntax.SyntaxChars;
 import me.dags.text.syntax.Writer;
 import me.dags.text.template.MUTemplate;
 import org.spongepowered.api.service.permission.Subject;
@@ -38,28 +44,50 @@ import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.serializer.TextParseException;
 import org.spongepowered.api.text.serializer.TextSerializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MUSpec implements TextSerializer {
 
-    private static final MUSpec global = new MUSpec("global", "textmu:global", MUPerms.DEFAULTS, MUPresets.NONE, MUPerms.ANY);
+    private static final MUSpec global = new MUSpec("global", "textmu:global", MUPerms.DEFAULTS, MUPresets.NONE, MUPerms.ANY, MULimits.DEFAULT, 0L, 0L, MUMetrics.NONE);
+    private static final CacheStats NO_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
 
     private final String id;
     private final String name;
     private final MUPresets presets;
+    private final SyntaxChars syntax;
     private final MUPerms permissions;
     private final Property.Predicate defaults;
+    private final MULimits limits;
+    private final long cacheSize;
+    private final long hoverCacheSize;
+    private final MUMetrics metrics;
+    private final Cache<CacheKey, Text> cache;
+    private final HoverCache hovers;
 
     private MUSpec(MUPerms permissions, MUPresets presets, Property.Predicate defaults) {
-        this("spec", "textmu:spec", permissions, presets, defaults);
+        this("spec", "textmu:spec", permissions, presets, defaults, MULimits.DEFAULT, 0L, 0L, MUMetrics.NONE);
     }
 
-    private MUSpec(String name, String id, MUPerms permissions, MUPresets presets, Property.Predicate defaults) {
+    private MUSpec(String name, String id, MUPerms permissions, MUPresets presets, Property.Predicate defaults, MULimits limits, long cacheSize, long hoverCacheSize, MUMetrics metrics) {
         this.permissions = permissions.withPresets(presets);
         this.presets = presets;
+        this.syntax = presets.getSyntaxChars();
         this.defaults = defaults;
+        this.limits = limits;
+        this.cacheSize = cacheSize;
+        this.hoverCacheSize = hoverCacheSize;
+        this.metrics = metrics;
+        this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build() : null;
+        this.hovers = hoverCacheSize > 0 ? HoverCache.of(hoverCacheSize) : null;
         this.name = name;
         this.id = id;
     }
@@ -82,9 +110,66 @@ public class MUSpec implements TextSerializer {
         return permissions;
     }
 
+    /**
+     * Returns a copy of this spec that caches up to maximumSize rendered strings, keyed by the
+     * input and the Predicate used to render it. Predicates are compared with equals(); subjects
+     * holding the same permissions produce equal MUPerms.Snapshots and so share entries.
+     */
+    public MUSpec withCache(long maximumSize) {
+        return new MUSpec(name, id, permissions, presets, defaults, limits, maximumSize, hoverCacheSize, metrics);
+    }
+
+    /**
+     * Returns a copy of this spec that shares up to maximumSize parsed hovers between the inputs it
+     * renders or compiles, along with the hover Text built for each MUPerms.Snapshot. Entries hold a
+     * snapshot's permissions, never the subject it was taken of.
+     */
+    public MUSpec withHoverCache(long maximumSize) {
+        return new MUSpec(name, id, permissions, presets, defaults, limits, cacheSize, maximumSize, metrics);
+    }
+
+    /**
+     * Returns a copy of this spec that bounds the work done for each input. Inputs that break a
+     * limit are rendered as plain text.
+     */
+    public MUSpec withLimits(MULimits limits) {
+        return new MUSpec(name, id, permissions, presets, defaults, limits, cacheSize, hoverCacheSize, metrics);
+    }
+
+    public MULimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Returns a copy of this spec that records the count and latency of its operations
+     */
+    public MUSpec withMetrics() {
+        return new MUSpec(name, id, permissions, presets, defaults, limits, cacheSize, hoverCacheSize, MUMetrics.create());
+    }
+
+    public MUMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isCached() {
+        return cache != null;
+    }
+
+    public CacheStats getCacheStats() {
+        return cache == null ? NO_STATS : cache.stats();
+    }
+
+    public void invalidateCache() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        if (hovers != null) {
+            hovers.invalidateAll();
+        }
+    }
+
     public Text render(Subject subject, String input) {
-        Property.Predicate predicate = permissions.wrap(subject);
-        return render(predicate, input);
+        return render(predicateFor(subject, input), input);
     }
 
     public Text render(String input) {
@@ -92,21 +177,188 @@ public class MUSpec implements TextSerializer {
     }
 
     public Text render(Property.Predicate predicate, String input) {
+        long start = metrics.start();
+        // most chat has no markup in it, so skip the parser (and the cache) when there's none
+        if (syntax.isPlain(input)) {
+            metrics.record(MUMetrics.Operation.RENDER, start);
+            return Text.of(input);
+        }
+        CacheKey key = cache == null ? null : new CacheKey(input, predicate);
+        Text text = key == null ? null : cache.getIfPresent(key);
+        if (text == null) {
+            text = parse(predicate, input, null);
+            if (key != null) {
+                cache.put(key, text);
+            }
+        }
+        metrics.record(MUMetrics.Operation.RENDER, start);
+        return text;
+    }
+
+    public Text render(Subject subject, String input, MUBudget budget) {
+        return render(predicateFor(subject, input), input, budget);
+    }
+
+    /**
+     * Renders the input, charging the work done to the budget. Input that can't be parsed within
+     * the budget is rendered as plain text, and properties left once it runs out are not applied.
+     * Cached results cost nothing, and results cut short by the budget are not cached.
+     */
+    public Text render(Property.Predicate predicate, String input, MUBudget budget) {
+        long start = metrics.start();
+        if (syntax.isPlain(input)) {
+            // charged as the parser would, which leaves input over the length limit alone
+            if (input.length() <= limits.getMaxLength()) {
+                budget.addChars(input.length());
+            }
+            metrics.record(MUMetrics.Operation.RENDER, start);
+            return Text.of(input);
+        }
+        CacheKey key = cache == null ? null : new CacheKey(input, predicate);
+        Text text = key == null ? null : cache.getIfPresent(key);
+        if (text == null) {
+            text = parse(predicate, input, budget);
+            if (key != null && !budget.isExhausted()) {
+                cache.put(key, text);
+            }
+        }
+        metrics.record(MUMetrics.Operation.RENDER, start);
+        return text;
+    }
+
+    public Text render(Property.Predicate predicate, Reader reader) {
+        long start = metrics.start();
+        Text text;
         try {
-            return Parser.parse(input, presets, predicate).build();
+            text = Parser.parse(reader, presets, limits, predicate).build();
         } catch (IOException e) {
-            return Text.EMPTY;
+            text = Text.EMPTY;
         }
+        metrics.record(MUMetrics.Operation.RENDER, start);
+        return text;
     }
 
-    public Text render(Property.Predicate predicate, Reader reader) {
+    public List<MUError> validate(Subject subject, String input) {
+        return validate(predicateFor(subject, input), input);
+    }
+
+    /**
+     * Finds the markup in the input that would be shown as plain text or dropped, and the properties
+     * the predicate denies, without rendering it. An empty list means the input renders as written.
+     */
+    public List<MUError> validate(Property.Predicate predicate, String input) {
+        return Parser.validate(input, presets, limits, predicate);
+    }
+
+    public String strip(String input) {
+        return strip(defaults, input);
+    }
+
+    public String strip(Subject subject, String input) {
+        return strip(predicateFor(subject, input), input);
+    }
+
+    public String strip(Property.Predicate predicate, String input) {
+        StringBuilder builder = new StringBuilder(input.length());
+        strip(predicate, input, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Writes the text of the input that is visible once rendered, ie render(predicate, input).toPlain(),
+     * without building any Text
+     */
+    public void strip(Property.Predicate predicate, CharSequence input, Appendable out) {
         try {
-            return Parser.parse(new CharReader(reader), presets, predicate).build();
+            if (syntax.isPlain(input)) {
+                out.append(input);
+                return;
+            }
+            Parser.strip(input, presets, limits, predicate, out);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public List<String> complete(Subject subject, String input) {
+        return complete(predicateFor(subject, input), input);
+    }
+
+    /**
+     * Returns the names of the colors, styles and presets that the predicate permits and that complete
+     * the property being typed at the end of the input, ie after "[text](" or "[text](red,"
+     */
+    public List<String> complete(Property.Predicate predicate, String input) {
+        return Parser.complete(input, presets, limits, predicate);
+    }
+
+    public Node compile(String input) {
+        try {
+            return Parser.compile(input, presets, limits, null, hovers);
+        } catch (IOException e) {
+            return Node.EMPTY;
+        }
+    }
+
+    public Text render(Node node) {
+        return render(defaults, node);
+    }
+
+    public Text render(Subject subject, Node node) {
+        return render(permissions.wrap(subject), node);
+    }
+
+    public Text render(Property.Predicate predicate, Node node) {
+        try {
+            return node.build(predicate, metrics).build();
         } catch (IOException e) {
             return Text.EMPTY;
         }
     }
 
+    /**
+     * Renders the input once for each group of subjects that answer identically for every
+     * permission the markup actually checks, rather than once per subject. Each subject is only
+     * asked about the permissions that were checked while rendering the groups it's matched against.
+     */
+    public <T extends Subject> Map<T, Text> renderForAll(Collection<T> subjects, String input) {
+        Map<T, Text> results = new LinkedHashMap<>(subjects.size());
+        if (syntax.isPlain(input)) {
+            Text text = Text.of(input);
+            for (T subject : subjects) {
+                results.put(subject, text);
+            }
+            return results;
+        }
+        Node node = compile(input);
+        List<Group> groups = new ArrayList<>();
+        for (T subject : subjects) {
+            // snapshots check each node lazily, so matching a group only asks about the nodes it checked
+            Property.Predicate predicate = permissions.wrap(subject);
+
+            Text text = null;
+            for (Group group : groups) {
+                if (group.matches(predicate)) {
+                    text = group.text;
+                    break;
+                }
+            }
+
+            if (text == null) {
+                Map<Object, Boolean> checked = new HashMap<>();
+                text = render(property -> {
+                    boolean result = predicate.test(property);
+                    checked.put(property, result);
+                    return result;
+                }, node);
+                groups.add(new Group(checked, text));
+            }
+
+            results.put(subject, text);
+        }
+        return results;
+    }
+
     public Text render(Text input) {
         return render(defaults, input);
     }
@@ -116,11 +368,18 @@ public class MUSpec implements TextSerializer {
     }
 
     public Text render(Property.Predicate predicate, Text input) {
+        long start = metrics.start();
+        long event = MUEvents.start();
+        Renderer renderer = new Renderer(presets, limits, predicate, metrics);
+        Text text;
         try {
-            return Renderer.render(input, presets, predicate).build();
+            text = renderer.render(input).build();
         } catch (IOException e) {
-            return input;
+            text = input;
         }
+        MUEvents.commit("render", id, event, input, renderer.getNodes(), renderer.getHovers());
+        metrics.record(MUMetrics.Operation.RENDER_TEXT, start);
+        return text;
     }
 
     @Override
@@ -162,13 +421,31 @@ public class MUSpec implements TextSerializer {
     }
 
     public void write(Text text, java.io.Writer writer, boolean escape) {
+        long start = metrics.start();
+        long event = MUEvents.start();
+        Writer textWriter = new Writer(writer);
         try {
-            Writer textWriter = new Writer(writer);
             textWriter.write(text, escape);
             writer.flush();
         } catch (IOException e) {
             e.printStackTrace();
         }
+        MUEvents.commit("write", id, event, text, textWriter.getNodes(), textWriter.getHovers());
+        metrics.record(MUMetrics.Operation.WRITE, start);
+    }
+
+    public String applyPresets(Subject subject, String input) {
+        return applyPresets(predicateFor(subject, input), input);
+    }
+
+    /**
+     * Expands the presets in the input into their [element](properties) form
+     */
+    public String applyPresets(Property.Predicate predicate, String input) {
+        long start = metrics.start();
+        String result = presets.apply(input, predicate);
+        metrics.record(MUMetrics.Operation.PRESET, start);
+        return result;
     }
 
     public String writeEscaped(Text text) {
@@ -177,6 +454,24 @@ public class MUSpec implements TextSerializer {
         return writer.toString();
     }
 
+    // the subject's permissions, or the defaults for plain input which no predicate is ever asked about
+    private Property.Predicate predicateFor(Subject subject, String input) {
+        return syntax.isPlain(input) ? defaults : permissions.wrap(subject);
+    }
+
+    private Text parse(Property.Predicate predicate, String input, @Nullable MUBudget budget) {
+        long start = MUEvents.start();
+        Parser parser = new Parser(input, presets, limits, budget, hovers);
+        Text text;
+        try {
+            text = parser.compile().build(budget == null ? predicate : budget.wrap(predicate), metrics).build();
+        } catch (IOException e) {
+            text = Text.EMPTY;
+        }
+        MUEvents.commit("parse", id, start, input, parser.getNodes(), parser.getHovers());
+        return text;
+    }
+
     public static MUSpec create() {
         return create(MUPerms.DEFAULTS, MUPresets.NONE);
     }
@@ -200,4 +495,54 @@ public class MUSpec implements TextSerializer {
     public static MUSpec global() {
         return global;
     }
+
+    private static final class Group {
+
+        private final Map<Object, Boolean> checked;
+        private final Text text;
+
+        private Group(Map<Object, Boolean> checked, Text text) {
+            this.checked = checked;
+            this.text = text;
+        }
+
+        private boolean matches(Property.Predicate predicate) {
+            for (Map.Entry<Object, Boolean> entry : checked.entrySet()) {
+                if (predicate.test(entry.getKey()) != entry.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final String input;
+        private final Property.Predicate predicate;
+        private final int hash;
+
+        private CacheKey(String input, Property.Predicate predicate) {
+            this.input = input;
+            this.predicate = MUBudget.unwrap(predicate);
+            this.hash = 31 * input.hashCode() + this.predicate.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey key = (CacheKey) o;
+            return input.equals(key.input) && predicate.equals(key.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Only ever loaded by MUEvents once it knows the jdk.jfr API is present, so nothing outside this
+ * class may refer to a jdk.jfr type.
+ */
+@Name("me.dags.text.SlowMarkup")
+@Label("Slow Markup")
+@Category("TextMU")
+@Description("A markup operation that took longer than the MUEvents threshold")
+@StackTrace(false)
+final class SlowMarkupEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Spec")
+    String spec;
+
+    @Label("Elapsed")
+    @Timespan
+    long elapsed;
+
+    @Label("Input Length")
+    int length;
+
+    @Label("Input Hash")
+    @Description("FNV-1a hash of the input, so repeat offenders can be matched without recording the text")
+    long hash;
+
+    @Label("Nodes")
+    int nodes;
+
+    @Label("Hovers")
+    int hovers;
+
+    static void emit(String operation, String spec, long elapsed, int length, long hash, int nodes, int hovers) {
+        SlowMarkupEvent event = new SlowMarkupEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.spec = spec;
+            event.elapsed = elapsed;
+            event.length = length;
+            event.hash = hash;
+            event.nodes = nodes;
+            event.hovers = hovers;
+            event.commit();
+        }
+    }
+
+    // keeps MUEvents informed of whether any recording is running, including any started with the
+    // JVM (-XX:StartFlightRecording) before this listener was added, which it isn't told about
+    static void listen() {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                update(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                update(FlightRecorder.getFlightRecorder());
+            }
+        });
+        if (FlightRecorder.isInitialized()) {
+            update(FlightRecorder.getFlightRecorder());
+        }
+    }
+
+    private static void update(FlightRecorder recorder) {
+        boolean running = false;
+        for (Recording recording : recorder.getRecordings()) {
+            running |= recording.getState() == RecordingState.RUNNING;
+        }
+        MUEvents.setRecording(running);
+    }
+}
@@ -52,14 +52,21 @@ package me.dags.text.preset;
 
 import com.google.common.collect.ImmutableMap;
 import me.dags.template.CharReader;
+import me.dags.text.syntax.Classifier;
 import me.dags.text.syntax.Property;
+import me.dags.text.syntax.SyntaxChars;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 
 public class MUPresets {
 
+    public static final int LITERAL = -1;
+    public static final int CLOSE = -2;
+
     public static final MUPresets NONE = new MUPresets(Collections.emptyMap());
 
     public static final MUPresets MARKDOWN = MUPresets.builder()
@@ -68,50 +75,55 @@ public class MUPresets {
             .add('~', "strike", "strikethrough")
             .build();
 
-    private final Map<Character, MUStyle> styles;
+    private final Map<String, MUStyle> styles;
+    private final Map<Character, MUStyle> chars;
+    // ordered longest first so that matching is greedy
+    private final MUStyle[] delimiters;
+    // the first char of every delimiter
+    private final SyntaxChars starts;
+    private volatile Classifier classifier;
+    private volatile SyntaxChars syntax;
 
-    private MUPresets(Map<Character, MUStyle> styles) {
+    private MUPresets(Map<String, MUStyle> styles) {
         this.styles = styles;
+        this.chars = charStyles(styles);
+        this.delimiters = styles.values().toArray(new MUStyle[0]);
+        Arrays.sort(delimiters, Comparator.comparingInt((MUStyle style) -> -style.getDelimiter().length())
+                .thenComparing(MUStyle::getDelimiter));
+        StringBuilder starts = new StringBuilder(delimiters.length);
+        for (MUStyle style : delimiters) {
+            starts.append(style.getDelimiter().charAt(0));
+        }
+        this.starts = SyntaxChars.of(starts);
     }
 
     public String apply(String input, Property.Predicate predicate) {
         if (isEmpty()) {
             return input;
-        } else {
-            StringBuilder buf = new StringBuilder(input.length());
-            apply(input, buf, 0, CharReader.EOF, predicate);
-            return buf.toString();
         }
-    }
-
-    public Map<Character, MUStyle> getStyles() {
-        return styles;
-    }
 
-    public boolean isEmpty() {
-        return styles.isEmpty();
-    }
+        StringBuilder text = new StringBuilder(input.length());
+        int[] marks = new int[8];
+        int[] types = new int[8];
+        int count = 0;
 
-    private int apply(String source, StringBuilder dest, int start, char stop, Property.Predicate predicate) {
         boolean charEscape = false;
         boolean stringEscape = false;
-
-        for (int i = start; i < source.length(); i++) {
-            char c = source.charAt(i);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
 
             if (stringEscape) {
                 if (c == '`') {
                     stringEscape = false;
-                    continue;
                 } else {
-                    dest.append(c);
-                    continue;
+                    text.append(c);
                 }
+                continue;
             }
 
             if (charEscape) {
                 charEscape = false;
-                dest.append(c);
+                text.append(c);
                 continue;
             }
 
@@ -125,30 +137,181 @@ public class MUPresets {
                 continue;
             }
 
-            if (c == stop) {
-                return i;
+            int type = match(input, i);
+            if (type == LITERAL) {
+                text.append(c);
+                continue;
             }
 
-            MUStyle style = styles.getOrDefault(c, null);
-            if (style == null || !predicate.test(style.getName())) {
-                dest.append(c);
-                continue;
+            if (count == marks.length) {
+                marks = Arrays.copyOf(marks, count * 2);
+                types = Arrays.copyOf(types, count * 2);
             }
 
-            StringBuilder buf = new StringBuilder();
-            int end = apply(source, buf, i + 1, c, predicate);
-            if (end > -1 && source.charAt(end) == c) {
-                dest.append('[');
-                dest.append(buf.toString());
-                dest.append("](");
-                dest.append(style.getProperties());
-                dest.append(')');
-                i = end;
+            String delimiter = delimiters[type].getDelimiter();
+            marks[count] = text.length();
+            types[count++] = type;
+            text.append(delimiter);
+            i += delimiter.length() - 1;
+        }
+
+        int[] ends = pair(types, count, predicate);
+        StringBuilder dest = new StringBuilder(text.length() + count * 8);
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            if (ends[i] == LITERAL) {
+                continue;
+            }
+            MUStyle style = delimiters[types[i]];
+            dest.append(text, pos, marks[i]);
+            if (ends[i] == CLOSE) {
+                dest.append("](").append(style.getProperties()).append(')');
             } else {
-                dest.append(c);
+                dest.append('[');
             }
+            pos = marks[i] + style.getDelimiter().length();
         }
-        return -1;
+        dest.append(text, pos, text.length());
+
+        return dest.toString();
+    }
+
+    /**
+     * The styles keyed by their single char delimiters. Styles with longer delimiters are left out.
+     *
+     * @deprecated use getDelimitedStyles, which includes every style
+     */
+    @Deprecated
+    public Map<Character, MUStyle> getStyles() {
+        return chars;
+    }
+
+    /**
+     * The styles keyed by their delimiters
+     */
+    public Map<String, MUStyle> getDelimitedStyles() {
+        return styles;
+    }
+
+    public Classifier getClassifier() {
+        Classifier result = classifier;
+        if (result == null) {
+            classifier = result = Classifier.of(this);
+        }
+        return result;
+    }
+
+    public SyntaxChars getSyntaxChars() {
+        SyntaxChars result = syntax;
+        if (result == null) {
+            syntax = result = SyntaxChars.of(this);
+        }
+        return result;
+    }
+
+    public MUStyle getStyle(int type) {
+        return delimiters[type];
+    }
+
+    public boolean isEmpty() {
+        return styles.isEmpty();
+    }
+
+    // true if the char is the first char of any delimiter
+    public boolean isDelimiter(char c) {
+        return starts.contains(c);
+    }
+
+    public int getMaxLength() {
+        return delimiters.length == 0 ? 0 : delimiters[0].getDelimiter().length();
+    }
+
+    // returns the type of the longest delimiter starting at the given index, or LITERAL
+    public int match(CharSequence input, int start) {
+        for (int type = 0; type < delimiters.length; type++) {
+            String delimiter = delimiters[type].getDelimiter();
+            if (start + delimiter.length() > input.length()) {
+                continue;
+            }
+            int i = 0;
+            while (i < delimiter.length() && input.charAt(start + i) == delimiter.charAt(i)) {
+                i++;
+            }
+            if (i == delimiter.length()) {
+                return type;
+            }
+        }
+        return LITERAL;
+    }
+
+    // Pairs up a sequence of delimiter types, returning for each one either the index of the
+    // delimiter that closes it, CLOSE if it closes an earlier delimiter, or LITERAL.
+    // A delimiter is closed by the next delimiter of the same type, stepping over any pairs
+    // that open (and close) along the way. That rule only looks rightwards, so the closing
+    // index of each delimiter can be resolved in a single right-to-left pass by tracking,
+    // per type, the next delimiter of that type that would be reached from each position.
+    public int[] pair(int[] types, int count, Property.Predicate predicate) {
+        return pair(types, count, predicate, Integer.MAX_VALUE);
+    }
+
+    // as above, but pairs that would nest deeper than maxDepth are left as literal text
+    public int[] pair(int[] types, int count, Property.Predicate predicate, int maxDepth) {
+        int[] ends = new int[count];
+        Arrays.fill(ends, LITERAL);
+
+        int[][] next = new int[delimiters.length][];
+        boolean any = false;
+        for (int type = 0; type < delimiters.length; type++) {
+            if (predicate.test(delimiters[type].getName())) {
+                next[type] = new int[count + 1];
+                next[type][count] = LITERAL;
+                any = true;
+            }
+        }
+
+        if (!any) {
+            return ends;
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            int[] same = next[types[i]];
+            int close = same == null ? LITERAL : same[i + 1];
+            int skip = close == LITERAL ? i + 1 : close + 1;
+            for (int type = 0; type < next.length; type++) {
+                if (next[type] != null) {
+                    next[type][i] = type == types[i] ? i : next[type][skip];
+                }
+            }
+            ends[i] = close;
+        }
+
+        // a delimiter that would open a pair doesn't if it closes an earlier one instead
+        int depth = 0;
+        for (int i = 0; i < count; i++) {
+            if (ends[i] == CLOSE) {
+                depth--;
+            } else if (ends[i] > i) {
+                if (depth < maxDepth) {
+                    ends[ends[i]] = CLOSE;
+                    depth++;
+                } else {
+                    ends[ends[i]] = LITERAL;
+                    ends[i] = LITERAL;
+                }
+            }
+        }
+
+        return ends;
+    }
+
+    private static Map<Character, MUStyle> charStyles(Map<String, MUStyle> styles) {
+        Map<Character, MUStyle> chars = new HashMap<>();
+        for (Map.Entry<String, MUStyle> entry : styles.entrySet()) {
+            if (entry.getKey().length() == 1) {
+                chars.put(entry.getKey().charAt(0), entry.getValue());
+            }
+        }
+        return ImmutableMap.copyOf(chars);
     }
 
     public static Builder builder() {
@@ -157,18 +320,24 @@ public class MUPresets {
 
     public static class Builder {
 
-        private final Map<Character, MUStyle> styles = new HashMap<>();
+        private final Map<String, MUStyle> styles = new HashMap<>();
 
         public Builder add(char c, String name, String properties) {
-            if (name.isEmpty() || properties.isEmpty()) {
+            return add(String.valueOf(c), name, properties);
+        }
+
+        public Builder add(String delimiter, String name, String properties) {
+            if (delimiter.isEmpty() || name.isEmpty() || properties.isEmpty()) {
                 return this;
             }
-            if (c == CharReader.EOF || c == '\\' || c == '`' || c == '[' || c == ']' || c == '(' || c == ')' || c == ',') {
-                return this;
-            } else {
-                styles.put(c, new MUStyle(name, properties));
-                return this;
+            for (int i = 0; i < delimiter.length(); i++) {
+                char c = delimiter.charAt(i);
+                if (c == CharReader.EOF || c == '\\' || c == '`' || c == '[' || c == ']' || c == '(' || c == ')' || c == ',') {
+                    return this;
+                }
             }
+            styles.put(delimiter, new MUStyle(delimiter, name, properties));
+            return this;
         }
 
         public MUPresets build() {
@@ -25,16 +25,37 @@
 
 package me.dags.text.preset;
 
+import me.dags.text.syntax.Classifier;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.Property;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
 public class MUStyle {
 
+    private final String delimiter;
     private final String name;
     private final String properties;
+    private volatile List<Property> compiled;
+    private volatile Property property;
 
+    // a style with no delimiter of its own
     public MUStyle(String name, String properties) {
+        this("", name, properties);
+    }
+
+    public MUStyle(String delimiter, String name, String properties) {
+        this.delimiter = delimiter;
         this.name = name;
         this.properties = properties;
     }
 
+    public String getDelimiter() {
+        return delimiter;
+    }
+
     public String getName() {
         return name;
     }
@@ -42,4 +63,33 @@ public class MUStyle {
     public String getProperties() {
         return properties;
     }
+
+    // the preset's properties combined into one, applied when the preset is named in a property list
+    public Property getProperty() {
+        Property result = property;
+        if (result == null) {
+            List<Property> properties = getPropertyList();
+            property = result = Property.of(Classifier.Kind.PRESET, name, name, (b, p) -> {
+                for (Property property : properties) {
+                    if (property.test(p)) {
+                        property.apply(b, p);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    public List<Property> getPropertyList() {
+        List<Property> list = compiled;
+        if (list == null) {
+            try {
+                list = Collections.unmodifiableList(Parser.properties(properties, MUPresets.NONE));
+            } catch (IOException e) {
+                list = Collections.emptyList();
+            }
+            compiled = list;
+        }
+        return list;
+    }
 }
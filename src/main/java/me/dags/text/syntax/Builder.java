@@ -51,20 +51,30 @@
 package me.dags.text.syntax;
 
 import me.dags.template.CharReader;
+import me.dags.text.MULimits;
 import me.dags.text.preset.MUPresets;
-import org.spongepowered.api.text.Text;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
 class Builder {
 
+    private static final int[] NO_MARKS = new int[0];
+
     private final StringBuilder pre = new StringBuilder();
     private final List<Property> properties = new LinkedList<>();
     private final List<Builder> children = new LinkedList<>();
 
+    // indices into pre of preset delimiters, and the type of each delimiter
+    private int[] marks = NO_MARKS;
+    private int[] types = NO_MARKS;
+    private int markCount = 0;
+
     private boolean valid = true;
     private char failChar = CharReader.EOF;
 
@@ -86,10 +96,6 @@ class Builder {
         return failChar;
     }
 
-    public String getPlain() {
-        return pre.toString();
-    }
-
     public Builder text(char c) {
         if (children.isEmpty()) {
             pre.append(c);
@@ -113,6 +119,56 @@ class Builder {
         return this;
     }
 
+    public Builder text(CharSequence s, int start, int end) {
+        if (start < end) {
+            if (children.isEmpty()) {
+                pre.append(s, start, end);
+            } else {
+                Builder post = new Builder();
+                post.text(s, start, end);
+                children.add(post);
+                return post;
+            }
+        }
+        return this;
+    }
+
+    public Builder text(Builder plain) {
+        if (plain.pre.length() > 0) {
+            if (children.isEmpty()) {
+                for (int i = 0; i < plain.markCount; i++) {
+                    mark(pre.length() + plain.marks[i], plain.types[i]);
+                }
+                pre.append(plain.pre);
+            } else {
+                return child(new Builder().text(plain));
+            }
+        }
+        return this;
+    }
+
+    public Builder mark(String delimiter, int type) {
+        if (children.isEmpty()) {
+            mark(pre.length(), type);
+            pre.append(delimiter);
+        } else {
+            Builder post = new Builder();
+            post.mark(delimiter, type);
+            children.add(post);
+            return post;
+        }
+        return this;
+    }
+
+    private void mark(int index, int type) {
+        if (markCount == marks.length) {
+            marks = Arrays.copyOf(marks, Math.max(4, markCount * 2));
+            types = Arrays.copyOf(types, marks.length);
+        }
+        marks[markCount] = index;
+        types[markCount++] = type;
+    }
+
     public Builder property(Property p) {
         if (p != Property.NONE) {
             properties.add(p);
@@ -129,32 +185,37 @@ class Builder {
         return this;
     }
 
-    public Text.Builder build(MUPresets preset, Property.Predicate predicate) throws IOException {
-        Text.Builder builder;
-        Iterator<Builder> iterator = children.iterator();
-
-        if (pre.length() > 0) {
-            String text = pre.toString();
-            String plain = preset.apply(text, predicate);
-            if (plain.length() == text.length()) {
-                builder = Text.builder(plain);
-            } else {
-                builder = Parser.parse(plain, MUPresets.NONE, predicate);
+    // the children are built with a stack of the Builders part way through rather than by recursion,
+    // so that the depth of the tree is only bounded by the limits
+    public Node toNode(MUPresets presets, MULimits limits) {
+        Deque<Building> stack = new ArrayDeque<>();
+        Building building = new Building(this);
+        while (true) {
+            if (building.children.hasNext()) {
+                stack.push(building);
+                building = new Building(building.children.next());
+                continue;
             }
-        } else if (iterator.hasNext()) {
-            builder = iterator.next().build(preset, predicate);
-        } else {
-            return Text.EMPTY.toBuilder();
+            Builder builder = building.builder;
+            Node node = new Node(builder.pre.toString(), Arrays.copyOf(builder.marks, builder.markCount), Arrays.copyOf(builder.types, builder.markCount), builder.properties, building.nodes, presets, limits);
+            if (stack.isEmpty()) {
+                return node;
+            }
+            building = stack.pop();
+            building.nodes.add(node);
         }
+    }
 
-        while (iterator.hasNext()) {
-            builder.append(iterator.next().build(preset, predicate).build());
-        }
+    private static class Building {
 
-        for (Property property : properties) {
-            property.apply(builder);
-        }
+        private final Builder builder;
+        private final Iterator<Builder> children;
+        private final List<Node> nodes;
 
-        return builder;
+        private Building(Builder builder) {
+            this.builder = builder;
+            this.children = builder.children.iterator();
+            this.nodes = new ArrayList<>(builder.children.size());
+        }
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package me.dags.text.syntax;
+
+import me.dags.text.MUPerms;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves a property token to the kind of property it describes in a single pass over the
+ * token, by walking a trie of every color and style alias, every preset name and every
+ * action prefix. Tokens that fall off the trie are rejected after the first unknown char.
+ */
+public final class Classifier {
+
+    public enum Kind {
+        NONE,
+        COLOR,
+        STYLE,
+        PRESET,
+        COMMAND,
+        SUGGESTION,
+        URL,
+        HOVER,
+    }
+
+    public static final Token NONE = new Token(Kind.NONE, null);
+    public static final Token COMMAND = new Token(Kind.COMMAND, null);
+    public static final Token SUGGESTION = new Token(Kind.SUGGESTION, null);
+    public static final Token URL = new Token(Kind.URL, null);
+    public static final Token HOVER = new Token(Kind.HOVER, null);
+
+    private static final String[] URL_PREFIXES = {"http://", "https://", "ftp://", "ftps://", "www."};
+
+    private final Trie root = new Trie();
+
+    private Classifier() {}
+
+    public Token classify(String in) {
+        return classify(in, 0, in.length());
+    }
+
+    public Token classify(CharSequence in, int start, int end) {
+        if (start >= end) {
+            return NONE;
+        }
+
+        Trie node = root;
+        Token prefix = null;
+        boolean url = false;
+        for (int i = start; i < end; i++) {
+            char c = in.charAt(i);
+            url |= c == '.' || c == ':';
+            if (node == null) {
+                if (url) {
+                    break;
+                }
+                continue;
+            }
+            node = node.get(c);
+            if (node != null && node.prefix != null) {
+                prefix = node.prefix;
+            } else if (node == null && prefix != null && prefix != URL) {
+                return prefix;
+            }
+        }
+
+        if (prefix != null && prefix != URL) {
+            return prefix;
+        }
+        // only tokens with a url prefix, a domain or a port are worth testing against the url syntax
+        if ((url || prefix == URL) && Property.isURL(in, start, end)) {
+            return URL;
+        }
+        if (node != null && node.token != null) {
+            return node.token;
+        }
+        return HOVER;
+    }
+
+    /**
+     * Returns the names of the colors, styles (including their alternative names) and presets that
+     * start with the chars [start, end) of the input and that the predicate permits, in order
+     */
+    public List<String> complete(CharSequence in, int start, int end, Property.Predicate predicate) {
+        Trie node = root;
+        for (int i = start; i < end && node != null; i++) {
+            node = node.get(in.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        node.collect(predicate, names);
+        return names;
+    }
+
+    public static Classifier of(MUPresets presets) {
+        Classifier classifier = new Classifier();
+        classifier.root.put("/", 0).prefix = COMMAND;
+        classifier.root.put("//", 0).prefix = SUGGESTION;
+        for (String prefix : URL_PREFIXES) {
+            classifier.root.put(prefix, 0).prefix = URL;
+        }
+        // later entries take precedence, matching the order the property kinds were tested in
+        for (MUStyle style : presets.getDelimitedStyles().values()) {
+            classifier.root.put(style.getName(), 0).name(style.getName(), new Token(Kind.PRESET, style));
+        }
+        for (Map.Entry<String, ?> entry : Property.STYLES.entrySet()) {
+            classifier.root.put(entry.getKey(), 0).name(entry.getKey(), new Token(Kind.STYLE, entry.getValue()));
+        }
+        for (Map.Entry<String, ?> entry : Property.COLORS.entrySet()) {
+            classifier.root.put(entry.getKey(), 0).name(entry.getKey(), new Token(Kind.COLOR, entry.getValue()));
+        }
+        return classifier;
+    }
+
+    public static final class Token {
+
+        private final Kind kind;
+        private final Object value;
+
+        private Token(Kind kind, Object value) {
+            this.kind = kind;
+            this.value = value;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * The TextColor, TextStyle or MUStyle the token names, or null for the other kinds
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * The object a Predicate is tested with to permit the property the token names
+         */
+        public Object getPermission() {
+            switch (kind) {
+                case PRESET:
+                    return ((MUStyle) value).getName();
+                case COMMAND:
+                    return MUPerms.COMMAND;
+                case SUGGESTION:
+                    return MUPerms.SUGGESTION;
+                case URL:
+                    return MUPerms.URL;
+                case HOVER:
+                    return MUPerms.HOVER;
+                default:
+                    return value;
+            }
+        }
+    }
+
+    private static class Trie {
+
+        private char[] keys = new char[0];
+        private Trie[] children = new Trie[0];
+        private Token token;
+        private Token prefix;
+        private String name;
+
+        private void name(String name, Token token) {
+            this.name = name;
+            this.token = token;
+        }
+
+        private void collect(Property.Predicate predicate, List<String> names) {
+            if (token != null && predicate.test(token.getPermission())) {
+                names.add(name);
+            }
+            for (Trie child : children) {
+                child.collect(predicate, names);
+            }
+        }
+
+        private Trie get(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        private Trie put(String key, int index) {
+            if (index == key.length()) {
+                return this;
+            }
+            char c = key.charAt(index);
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                i = -i - 1;
+                keys = insert(keys, i, c);
+                children = insert(children, i, new Trie());
+            }
+            return children[i].put(key, index + 1);
+        }
+
+        private static char[] insert(char[] array, int index, char c) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            result[index] = c;
+            return result;
+        }
+
+        private static Trie[] insert(Trie[] array, int index, Trie trie) {
+            Trie[] result = new Trie[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            result[index] = trie;
+            return result;
+        }
+    }
+}
@@ -45,13 +45,21 @@ public class Context {
         builder = builder.text(string);
     }
 
+    void accept(CharSequence string, int start, int end) {
+        builder = builder.text(string, start, end);
+    }
+
+    void mark(String delimiter, int type) {
+        builder = builder.mark(delimiter, type);
+    }
+
     void append(Builder child, char pre) {
         if (child.isValid()) {
             builder.child(child);
         } else {
             builder.text(pre);
             if (child.isPlain()) {
-                builder.text(child.getPlain());
+                builder.text(child);
             } else {
                 builder.child(child);
             }
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import me.dags.text.MULimits;
+import me.dags.text.preset.MUPresets;
+import org.spongepowered.api.text.Text;
+
+import java.util.Objects;
+
+/**
+ * Hover properties shared per source string (and the limits it was parsed under), along with the
+ * Text they build for each permission snapshot, so repeated hovers are neither re-parsed nor rebuilt.
+ * Text is keyed on the MUPerms.Snapshot it was built for, which holds the permission bits of the
+ * subject it was taken of but not the subject itself.
+ */
+public final class HoverCache {
+
+    final Cache<Key, Hover> hovers;
+    final Cache<Key, Text> texts;
+
+    private HoverCache(long maximumSize) {
+        this.hovers = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.texts = CacheBuilder.newBuilder().maximumSize(maximumSize * 4).build();
+    }
+
+    public void invalidateAll() {
+        hovers.invalidateAll();
+        texts.invalidateAll();
+    }
+
+    /**
+     * Returns a cache holding up to maximumSize hovers, and up to four times as many built hover Texts
+     */
+    public static HoverCache of(long maximumSize) {
+        return new HoverCache(maximumSize);
+    }
+
+    static final class Hover {
+
+        final Property property;
+        final int nodes;
+        final int hovers;
+
+        Hover(Property property, int nodes, int hovers) {
+            this.property = property;
+            this.nodes = nodes;
+            this.hovers = hovers;
+        }
+    }
+
+    static final class Key {
+
+        final String source;
+        final MUPresets presets;
+        final MULimits limits;
+        final int depth;
+        final Property.Predicate predicate;
+        private final int hash;
+
+        Key(String source, MUPresets presets, MULimits limits, int depth, Property.Predicate predicate) {
+            this.source = source;
+            this.presets = presets;
+            this.limits = limits;
+            this.depth = depth;
+            this.predicate = predicate;
+            this.hash = Objects.hash(source, System.identityHashCode(presets), limits, depth, predicate);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return presets == key.presets
+                    && depth == key.depth
+                    && source.equals(key.source)
+                    && limits.equals(key.limits)
+                    && Objects.equals(predicate, key.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import com.google.common.collect.ImmutableList;
+import me.dags.text.MULimits;
+import me.dags.text.MUMetrics;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
+import org.spongepowered.api.text.Text;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, permission-agnostic parse tree. Properties are only checked against a
+ * Predicate when the Node is built, so a single Node can be rendered for any number of
+ * subjects.
+ */
+public final class Node {
+
+    public static final Node EMPTY = of("");
+
+    // marks the Node below it on the stack in accept as ready to close
+    private static final Object CLOSE = new Object();
+
+    private final String text;
+    private final int[] marks;
+    private final int[] types;
+    private final List<Property> properties;
+    private final List<Node> children;
+    private final MUPresets presets;
+    private final MULimits limits;
+
+    Node(String text, int[] marks, int[] types, List<Property> properties, List<Node> children, MUPresets presets, MULimits limits) {
+        this.text = text;
+        this.marks = marks;
+        this.types = types;
+        this.properties = ImmutableList.copyOf(properties);
+        this.children = ImmutableList.copyOf(children);
+        this.presets = presets;
+        this.limits = limits;
+    }
+
+    static Node of(String text) {
+        return new Node(text, new int[0], new int[0], ImmutableList.of(), ImmutableList.of(), MUPresets.NONE, MULimits.DEFAULT);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public List<Property> getProperties() {
+        return properties;
+    }
+
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    public Text.Builder build(Property.Predicate predicate) throws IOException {
+        return build(predicate, MUMetrics.NONE);
+    }
+
+    /**
+     * Builds this Node for the predicate, recording the time spent expanding its presets to the metrics
+     */
+    public Text.Builder build(Property.Predicate predicate, MUMetrics metrics) throws IOException {
+        TextListener listener = new TextListener(predicate);
+        accept(listener, predicate, null, metrics);
+        return listener.getBuilder();
+    }
+
+    // builds this Node, using the Text in prebuilt for any child found there rather than building it again
+    Text.Builder build(TextListener listener, @Nullable Map<Node, Text> prebuilt) throws IOException {
+        accept(listener, listener.getPredicate(), prebuilt, MUMetrics.NONE);
+        return listener.getBuilder();
+    }
+
+    /**
+     * Reports this Node to the listener as it would be built for the predicate, without building any Text
+     */
+    public void accept(ParseListener listener, Property.Predicate predicate) throws IOException {
+        accept(listener, predicate, null, MUMetrics.NONE);
+    }
+
+    // prebuilt is only given when the listener is a TextListener. The Nodes still to visit, and those
+    // to close once their children are in, are kept on an explicit stack rather than the call stack so
+    // that the depth of the tree is only bounded by the limits.
+    private void accept(ParseListener listener, Property.Predicate predicate, @Nullable Map<Node, Text> prebuilt, MUMetrics metrics) throws IOException {
+        Deque<Object> stack = new ArrayDeque<>();
+        open(listener, predicate, stack, metrics);
+        while (!stack.isEmpty()) {
+            Object next = stack.pop();
+            if (next == CLOSE) {
+                ((Node) stack.pop()).close(listener, predicate);
+                continue;
+            }
+            // a child with no text and no permitted properties contributes nothing of its own,
+            // so its children are inlined into the parent
+            Node child = (Node) next;
+            if (child.isTransparent(predicate)) {
+                for (Property property : child.properties) {
+                    listener.onPermissionDenied(property);
+                }
+                push(child.children, stack);
+                continue;
+            }
+            Text text = prebuilt == null ? null : prebuilt.get(child);
+            if (text != null) {
+                ((TextListener) listener).append(text);
+            } else {
+                child.open(listener, predicate, stack, metrics);
+            }
+        }
+    }
+
+    // reports this Node's text, leaving its children to be visited and itself to be closed
+    private void open(ParseListener listener, Property.Predicate predicate, Deque<Object> stack, MUMetrics metrics) throws IOException {
+        listener.onOpen();
+        stack.push(this);
+        stack.push(CLOSE);
+        push(children, stack);
+        if (!text.isEmpty()) {
+            if (marks.length == 0) {
+                listener.onText(text);
+            } else {
+                // the expanded text stands in for this Node's text as its first child
+                long start = metrics.start();
+                Node expanded = expand(predicate);
+                metrics.record(MUMetrics.Operation.PRESET, start);
+                expanded.open(listener, predicate, stack, metrics);
+            }
+        }
+    }
+
+    private void close(ParseListener listener, Property.Predicate predicate) throws IOException {
+        for (Property property : properties) {
+            if (property.test(predicate)) {
+                listener.onProperty(property);
+            } else {
+                listener.onPermissionDenied(property);
+            }
+        }
+        listener.onClose();
+    }
+
+    // pairs up the preset delimiters in this Node's text that the predicate allows, wrapping
+    // the text between each pair in a child with the preset's properties
+    private Node expand(Property.Predicate predicate) throws IOException {
+        int[] ends = presets.pair(types, types.length, predicate, limits.getMaxDepth());
+        Deque<Frame> stack = new ArrayDeque<>();
+        Frame root = new Frame(null, 0);
+        Frame frame = root;
+
+        for (int i = 0; i < marks.length; i++) {
+            if (ends[i] == MUPresets.LITERAL) {
+                continue;
+            }
+
+            MUStyle style = presets.getStyle(types[i]);
+            int next = marks[i] + style.getDelimiter().length();
+            frame.context.accept(text, frame.pos, marks[i]);
+
+            if (ends[i] == MUPresets.CLOSE) {
+                for (Property property : frame.style.getPropertyList()) {
+                    frame.context.root.property(property);
+                }
+                Frame parent = stack.pop();
+                parent.context.append(frame.context.root, '[');
+                frame = parent;
+            } else {
+                stack.push(frame);
+                frame = new Frame(style, next);
+            }
+
+            frame.pos = next;
+        }
+
+        root.context.accept(text, root.pos, text.length());
+        return root.context.root.toNode(MUPresets.NONE, limits);
+    }
+
+    // pushes the children so that the first is visited first
+    private static void push(List<Node> children, Deque<Object> stack) {
+        for (int i = children.size() - 1; i >= 0; i--) {
+            stack.push(children.get(i));
+        }
+    }
+
+    // a copy of this Node with the slots in its text and properties replaced by their values, sharing
+    // the Nodes that hold no slots. Slots for Text values are left in the text for the TextListener.
+    // Returns null if a filled property token resolves to no property. The Nodes part way through
+    // having their children filled are kept on a stack, as in accept.
+    @Nullable
+    Node fill(Slots slots, Object[] values, Parser parser) throws IOException {
+        if (!slots.contains(this)) {
+            return this;
+        }
+
+        Deque<Filling> stack = new ArrayDeque<>();
+        Filling filling = new Filling(this);
+        while (true) {
+            if (filling.children.size() < filling.node.children.size()) {
+                Node child = filling.node.children.get(filling.children.size());
+                if (slots.contains(child)) {
+                    stack.push(filling);
+                    filling = new Filling(child);
+                } else {
+                    filling.children.add(child);
+                }
+                continue;
+            }
+
+            Node filled = filling.node.fill(values, parser, filling.children);
+            if (filled == null || stack.isEmpty()) {
+                return filled;
+            }
+            filling = stack.pop();
+            filling.children.add(filled);
+        }
+    }
+
+    // a copy of this Node with the slots in its own text and properties filled, and the given children
+    @Nullable
+    private Node fill(Object[] values, Parser parser, List<Node> children) throws IOException {
+        String text = this.text;
+        int[] marks = this.marks;
+        if (Slots.indexIn(text, 0, text.length()) != -1) {
+            StringBuilder filled = new StringBuilder(text.length() + 16);
+            marks = new int[this.marks.length];
+            int mark = 0;
+            for (int i = 0; i < text.length(); i++) {
+                // delimiters are never slots so each mark moves along with the text before it
+                while (mark < marks.length && this.marks[mark] == i) {
+                    marks[mark++] = filled.length();
+                }
+                char c = text.charAt(i);
+                if (Slots.isSlot(c) && values[Slots.index(c)] instanceof String) {
+                    filled.append(values[Slots.index(c)]);
+                } else {
+                    filled.append(c);
+                }
+            }
+            text = filled.toString();
+        }
+
+        List<Property> properties = this.properties;
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            if (property instanceof Slots.Token) {
+                Property filled = parser.property(((Slots.Token) property).fill(values));
+                if (filled == null) {
+                    return null;
+                }
+                if (properties == this.properties) {
+                    properties = new ArrayList<>(properties);
+                }
+                properties.set(i, filled);
+            }
+        }
+
+        return new Node(text, marks, types, properties, children, presets, limits);
+    }
+
+    private boolean isTransparent(Property.Predicate predicate) {
+        if (!text.isEmpty()) {
+            return false;
+        }
+        for (Property property : properties) {
+            if (property.test(predicate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Filling {
+
+        private final Node node;
+        private final List<Node> children;
+
+        private Filling(Node node) {
+            this.node = node;
+            this.children = new ArrayList<>(node.children.size());
+        }
+    }
+
+    private static class Frame {
+
+        private final Context context = new Context(new Builder());
+        private final MUStyle style;
+        private int pos;
+
+        private Frame(MUStyle style, int pos) {
+            this.style = style;
+            this.pos = pos;
+        }
+    }
+}
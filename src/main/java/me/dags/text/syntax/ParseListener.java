@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import java.io.IOException;
+
+/**
+ * Receives the structure of a Node as a stream of events, in the order that they are applied
+ * when building Text: an element's own text, then its children, then its properties.
+ *
+ * <p>Elements with no text and no permitted properties are inlined into their parent, so
+ * their children are reported as the parent's and their properties as denied.
+ */
+public interface ParseListener {
+
+    /**
+     * Called at the start of each element, including the root
+     */
+    default void onOpen() {}
+
+    /**
+     * Called with the element's own text, at most once per element and before any of its children
+     */
+    default void onText(CharSequence text) {}
+
+    /**
+     * Called for each property that the predicate permits
+     */
+    default void onProperty(Property property) throws IOException {}
+
+    /**
+     * Called for each property that the predicate denies
+     */
+    default void onPermissionDenied(Property property) {}
+
+    /**
+     * Called at the end of each element
+     */
+    default void onClose() {}
+}
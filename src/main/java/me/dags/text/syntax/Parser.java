@@ -51,176 +51,770 @@
 package me.dags.text.syntax;
 
 import me.dags.template.CharReader;
+import me.dags.text.MUBudget;
+import me.dags.text.MUError;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
 import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
 import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.format.TextColor;
+import org.spongepowered.api.text.format.TextStyle;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 
 public class Parser {
 
-    private final MUPresets presets;
-    private final Reader reader;
-    private final Property.Predicate predicate;
+    private static final LimitExceeded LIMIT_EXCEEDED = new LimitExceeded();
 
-    public Parser(CharReader reader, MUPresets presets, Property.Predicate predicate) {
+    final MUPresets presets;
+    final MULimits limits;
+    final MUBudget budget;
+    @Nullable
+    final HoverCache hoverCache;
+    final int hoverDepth;
+    int nodes = 0;
+    int hovers = 0;
+    // while compiling markup with slots, the slots found in property lists (whose properties can only be
+    // resolved once filled), otherwise null
+    BitSet slots = null;
+
+    // only set by the deprecated CharReader constructor, for the deprecated parse()
+    private Property.Predicate predicate = MUPerms.ANY;
+    private final CharSequence input;
+    private final int length;
+    private int pos = 0;
+
+    // the range of input holding the last property read, or the unescaped copy if it had escapes
+    private CharSequence token;
+    private int tokenStart;
+    private int tokenEnd;
+
+    public Parser(CharSequence input, MUPresets presets) {
+        this(input, presets, MULimits.DEFAULT);
+    }
+
+    public Parser(CharSequence input, MUPresets presets, MULimits limits) {
+        this(input, presets, limits, null, null);
+    }
+
+    public Parser(CharSequence input, MUPresets presets, MULimits limits, @Nullable MUBudget budget) {
+        this(input, presets, limits, budget, null);
+    }
+
+    // hovers are parsed afresh each time unless given a cache to share them through
+    public Parser(CharSequence input, MUPresets presets, MULimits limits, @Nullable MUBudget budget, @Nullable HoverCache hoverCache) {
+        this(input, 0, input.length(), presets, limits, budget, hoverCache, 0);
+    }
+
+    /**
+     * @deprecated the predicate is now given when building, use Parser(CharSequence, MUPresets) and compile()
+     */
+    @Deprecated
+    public Parser(CharReader reader, MUPresets presets, Property.Predicate predicate) throws IOException {
+        this(read(reader), presets);
         this.predicate = predicate;
-        this.reader = new Reader(reader);
+    }
+
+    // a parser over the chars [start, end) of the input
+    private Parser(CharSequence input, int start, int end, MUPresets presets, MULimits limits, MUBudget budget, HoverCache hoverCache, int hoverDepth) {
+        this.input = input;
+        this.pos = start;
+        this.length = end;
         this.presets = presets;
+        this.limits = limits;
+        this.budget = budget;
+        this.hoverCache = hoverCache;
+        this.hoverDepth = hoverDepth;
     }
 
+    /**
+     * Builds the input as Text with the predicate given to the (deprecated) CharReader constructor,
+     * or with every property permitted
+     *
+     * @deprecated compile the input and build the Node with a Predicate instead
+     */
+    @Deprecated
     public Text.Builder parse() throws IOException {
-        Context context = new Context(new Builder());
-        while (reader.next()) {
+        return compile().build(predicate);
+    }
+
+    /**
+     * Parses the input, or returns it as plain text if it breaks any of the limits or exhausts the budget
+     */
+    public Node compile() throws IOException {
+        if (length > limits.getMaxLength()) {
+            return Node.of(input.toString());
+        }
+        try {
+            return parseNode();
+        } catch (LimitExceeded e) {
+            return Node.of(input.toString());
+        }
+    }
+
+    // open [elements are kept on an explicit stack rather than the call stack so that the depth
+    // of nesting is only bounded by the limits
+    Node parseNode() throws IOException {
+        if (budget != null && !budget.addChars(length)) {
+            throw LIMIT_EXCEEDED;
+        }
+        Deque<Context> stack = new ArrayDeque<>();
+        Context root = new Context(new Builder());
+        Context context = root;
+        while (true) {
             char end = readText(context);
             if (end == '[') {
-                Builder child = parseMarkdown();
-                context.append(child, '[');
-            } else if (end != CharReader.EOF) {
-                context.root.text(end);
+                if (stack.size() >= limits.getMaxDepth()) {
+                    throw LIMIT_EXCEEDED;
+                }
+                count(1);
+                stack.push(context);
+                context = new Context(new Builder());
+                continue;
             }
+
+            if (context == root) {
+                if (end == CharReader.EOF) {
+                    break;
+                }
+                root.root.text(end);
+                continue;
+            }
+
+            Builder element;
+            if (end == ']' && pos < length && input.charAt(pos) == '(') {
+                element = parseProperties(context, pos++ - 1);
+            } else {
+                element = context.root.fail(end);
+            }
+
+            context = stack.pop();
+            context.append(element, '[');
         }
-        return context.root.build(presets, predicate);
+        return root.root.toNode(presets, limits);
     }
 
-    private Builder parseMarkdown() throws IOException {
-        Context context = new Context(new Builder());
-        while (reader.next()) {
-            char end = readText(context);
-            if (end == ']') {
-                if (!reader.next()) {
-                    return context.root.fail(end);
+    /**
+     * The number of [elements] parsed so far, including those within hovers
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The number of hover properties parsed so far, including those nested within hovers
+     */
+    public int getHovers() {
+        return hovers;
+    }
+
+    // creates a parser for hover text nested within this parser's input
+    Parser hover(String in) {
+        return new Parser(in, 0, in.length(), presets, limits, budget, hoverCache, hoverDepth + 1);
+    }
+
+    void count(int count) {
+        count(count, true);
+    }
+
+    // nodes parsed by a child parser have already been charged to the shared budget
+    void count(int count, boolean charge) {
+        nodes += count;
+        if (nodes > limits.getMaxNodes() || (charge && budget != null && !budget.addNodes(count))) {
+            throw LIMIT_EXCEEDED;
+        }
+    }
+
+    void countHover() {
+        if (budget != null && !budget.addHovers(1)) {
+            throw LIMIT_EXCEEDED;
+        }
+    }
+
+    /**
+     * Checks the input for markup that would be shown as plain text or dropped when rendered, and for
+     * properties the predicate denies, without building anything. Hovers are checked in place.
+     */
+    public List<MUError> validate(Property.Predicate predicate) {
+        List<MUError> errors = new ArrayList<>();
+        if (length - pos > limits.getMaxLength()) {
+            errors.add(new MUError(MUError.Type.LIMIT_EXCEEDED, pos, length, "Longer than " + limits.getMaxLength() + " chars"));
+            return errors;
+        }
+        validate(predicate, errors);
+        return errors;
+    }
+
+    private void validate(Property.Predicate predicate, List<MUError> errors) {
+        int[] open = new int[8];
+        int depth = 0;
+        while (pos < length) {
+            char c = input.charAt(pos);
+            if (c == '\\') {
+                pos = Math.min(pos + 2, length);
+            } else if (c == '`') {
+                pos = Math.min(indexOf('`', pos + 1) + 1, length);
+            } else if (c == '[') {
+                if (depth >= limits.getMaxDepth() || ++nodes > limits.getMaxNodes()) {
+                    errors.add(new MUError(MUError.Type.LIMIT_EXCEEDED, pos, pos + 1, "Too many or too deeply nested elements"));
+                    return;
                 }
-                char next = reader.peek();
-                if (next != '(') {
-                    return context.root.fail(end);
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
                 }
-                reader.character();
-                return parseProperties(context);
-            }
-            if (end == '[') {
-                Builder child = parseMarkdown();
-                context.append(child, '[');
+                open[depth++] = pos++;
+            } else if (c == ']' && depth > 0) {
+                depth--;
+                if (++pos < length && input.charAt(pos) == '(') {
+                    validateProperties(predicate, errors);
+                }
+            } else {
+                pos++;
             }
         }
-        return context.root.fail(CharReader.EOF);
+        for (int i = 0; i < depth; i++) {
+            errors.add(new MUError(MUError.Type.UNCLOSED_ELEMENT, open[i], open[i] + 1, "Unclosed ["));
+        }
     }
 
-    private Builder parseProperties(Context context) throws IOException {
-        StringBuilder raw = new StringBuilder("](");
-        StringBuilder buffer = new StringBuilder();
-        while (reader.next()) {
-            char end = readProperty(buffer, raw);
+    private void validateProperties(Property.Predicate predicate, List<MUError> errors) {
+        int open = pos++;
+        while (true) {
+            int from = pos;
+            char end = readProperty();
             if (end == CharReader.EOF) {
-                break;
+                errors.add(new MUError(MUError.Type.UNCLOSED_PROPERTIES, open, length, "Missing ) after properties"));
+                return;
             }
+            // an escaped token is a copy, so errors cover the whole of its source instead
+            int start = token == input ? tokenStart : from;
+            int stop = token == input ? tokenEnd : pos - 1;
+            validateProperty(predicate, errors, start, stop);
             if (end == ')') {
-                Property property = Property.parse(buffer.toString().trim(), presets, predicate);
-                context.root.property(property);
-                return context.root;
+                return;
             }
-            if (end == ',') {
-                Property property = Property.parse(buffer.toString().trim(), presets, predicate);
-                context.root.property(property);
-                buffer.setLength(0);
+        }
+    }
+
+    private void validateProperty(Property.Predicate predicate, List<MUError> errors, int start, int end) {
+        Classifier.Token property = presets.getClassifier().classify(token, tokenStart, tokenEnd);
+        if (property.getKind() == Classifier.Kind.NONE) {
+            errors.add(new MUError(MUError.Type.UNKNOWN_PROPERTY, start, end, "Empty property"));
+            return;
+        }
+        if (property.getKind() == Classifier.Kind.URL && !isValidURL(token.subSequence(tokenStart, tokenEnd).toString())) {
+            errors.add(new MUError(MUError.Type.UNKNOWN_PROPERTY, start, end, "Invalid url: " + input.subSequence(start, end)));
+            return;
+        }
+
+        if (!predicate.test(property.getPermission())) {
+            errors.add(new MUError(MUError.Type.DENIED_PROPERTY, start, end, "Not permitted: " + input.subSequence(start, end)));
+            return;
+        }
+
+        // hovers nested beyond the limit are shown as plain text so there's nothing to check
+        if (property.getKind() == Classifier.Kind.HOVER && hoverDepth < limits.getMaxHoverDepth()) {
+            Parser hover = new Parser(token, tokenStart, tokenEnd, presets, limits, null, hoverCache, hoverDepth + 1);
+            int count = errors.size();
+            hover.validate(predicate, errors);
+            if (token != input) {
+                // positions within a copied token can't be mapped back, so point at the whole token
+                for (int i = count; i < errors.size(); i++) {
+                    MUError error = errors.get(i);
+                    errors.set(i, new MUError(error.getType(), start, end, error.getMessage()));
+                }
             }
         }
-        return context.root.text(raw.toString()).fail(CharReader.EOF);
     }
 
-    private char readText(Context context) throws IOException {
-        boolean charEscaped = false;
-        boolean stringEscaped = false;
-        while (reader.next()) {
-            char c = reader.character();
+    /**
+     * Returns the index that the property being typed at the end of the input starts at, or -1 if
+     * the input doesn't end within a property list. Properties being typed within hovers are found too.
+     */
+    public int getCompletionStart() {
+        int depth = 0;
+        while (pos < length) {
+            char c = input.charAt(pos);
+            if (c == '\\') {
+                pos = Math.min(pos + 2, length);
+            } else if (c == '`') {
+                pos = Math.min(indexOf('`', pos + 1) + 1, length);
+            } else if (c == '[') {
+                depth++;
+                pos++;
+            } else if (c == ']' && depth > 0) {
+                depth--;
+                if (++pos < length && input.charAt(pos) == '(') {
+                    pos++;
+                    char end;
+                    do {
+                        end = readProperty();
+                    } while (end == ',');
+                    if (end == CharReader.EOF) {
+                        return completionStart();
+                    }
+                }
+            } else {
+                pos++;
+            }
+        }
+        return -1;
+    }
 
-            if (charEscaped) {
-                context.accept(c);
-                charEscaped = false;
+    private int completionStart() {
+        // escaped tokens are copies so can't be mapped back onto the input
+        if (token != input) {
+            return -1;
+        }
+        if (hoverDepth < limits.getMaxHoverDepth()) {
+            int hover = new Parser(input, tokenStart, length, presets, limits, null, hoverCache, hoverDepth + 1).getCompletionStart();
+            if (hover != -1) {
+                return hover;
+            }
+        }
+        return tokenStart;
+    }
+
+    // Writes the visible text of the input in one pass, returning false for markup that only a full
+    // parse shows faithfully (failed or unclosed elements, stray ]s, anything near the limits).
+    // Preset delimiters are paired per run of text between elements, as they are when parsed.
+    private boolean strip(Property.Predicate predicate, StringBuilder out) {
+        int[] marks = new int[0];
+        int[] types = marks;
+        int count = 0;
+        int[] open = new int[8];
+        int depth = 0;
+        int brackets = 0;
+
+        while (pos < length) {
+            char c = input.charAt(pos);
+
+            if (c == '\\') {
+                if (++pos < length) {
+                    out.append(input.charAt(pos++));
+                }
                 continue;
             }
-            if (stringEscaped) {
-                if (c == '`') {
-                    stringEscaped = false;
-                } else {
-                    context.accept(c);
+            if (c == '`') {
+                int close = indexOf('`', ++pos);
+                out.append(input, pos, close);
+                pos = Math.min(close + 1, length);
+                continue;
+            }
+            if (c == '[' || c == ']') {
+                count = unmark(predicate, out, marks, types, count);
+                if (c == '[') {
+                    if (depth >= limits.getMaxDepth() || ++brackets > limits.getMaxNodes()) {
+                        return false;
+                    }
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = out.length();
+                    pos++;
+                    continue;
+                }
+                if (depth == 0 || ++pos >= length || input.charAt(pos) != '(') {
+                    return false;
+                }
+                // elements without text may be dropped, joining the text either side into one run
+                if (open[--depth] == out.length()) {
+                    return false;
+                }
+                pos++;
+                char end;
+                do {
+                    end = readProperty();
+                    // elements within hovers count towards the limits, and can't nest deeper than they number
+                    int hover = 0;
+                    for (int i = tokenStart; i < tokenEnd; i++) {
+                        if (token.charAt(i) == '[') {
+                            hover++;
+                        }
+                    }
+                    brackets += hover;
+                    if (hover >= limits.getMaxDepth() || brackets > limits.getMaxNodes()) {
+                        return false;
+                    }
+                } while (end == ',');
+                if (end == CharReader.EOF) {
+                    return false;
                 }
                 continue;
             }
+            if (presets.isDelimiter(c)) {
+                int type = presets.match(input, pos);
+                if (type != MUPresets.LITERAL) {
+                    if (count == marks.length) {
+                        marks = Arrays.copyOf(marks, Math.max(4, count * 2));
+                        types = Arrays.copyOf(types, marks.length);
+                    }
+                    String delimiter = presets.getStyle(type).getDelimiter();
+                    marks[count] = out.length();
+                    types[count++] = type;
+                    out.append(delimiter);
+                    pos += delimiter.length();
+                    continue;
+                }
+            }
+
+            out.append(c);
+            pos++;
+        }
+
+        if (depth > 0) {
+            return false;
+        }
+        unmark(predicate, out, marks, types, count);
+        return true;
+    }
+
+    // removes the delimiters in the run of text just written that pair up, leaving the rest as literal text
+    private int unmark(Property.Predicate predicate, StringBuilder out, int[] marks, int[] types, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        int[] ends = presets.pair(types, count, predicate, limits.getMaxDepth());
+        int write = marks[0];
+        int read = marks[0];
+        for (int i = 0; i < count; i++) {
+            for (; read < marks[i]; read++) {
+                out.setCharAt(write++, out.charAt(read));
+            }
+            int size = presets.getStyle(types[i]).getDelimiter().length();
+            if (ends[i] == MUPresets.LITERAL) {
+                for (int j = 0; j < size; j++) {
+                    out.setCharAt(write++, out.charAt(read++));
+                }
+            } else {
+                read += size;
+            }
+        }
+        for (; read < out.length(); read++) {
+            out.setCharAt(write++, out.charAt(read));
+        }
+        out.setLength(write);
+        return 0;
+    }
+
+    private static boolean isValidURL(String url) {
+        try {
+            new URL(url);
+            return true;
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    Property property(CharSequence in, int start, int end) throws IOException {
+        if (slots != null && Slots.indexIn(in, start, end) != -1) {
+            return new Slots.Token(in.subSequence(start, end).toString());
+        }
+        // only materialise the token as a String for the kinds of property that hold on to it
+        Classifier.Token token = presets.getClassifier().classify(in, start, end);
+        switch (token.getKind()) {
+            case COLOR:
+                return Property.parseColor((TextColor) token.getValue());
+            case STYLE:
+                return Property.parseStyle((TextStyle) token.getValue());
+            case PRESET:
+                return Property.parsePreset((MUStyle) token.getValue());
+            case SUGGESTION:
+                return Property.parseSuggestion(in.subSequence(start + 1, end).toString());
+            case COMMAND:
+                return Property.parseCommand(in.subSequence(start, end).toString());
+            case URL:
+                return Property.parseURL(in.subSequence(start, end).toString());
+            case HOVER:
+                return Properties.hover(in.subSequence(start, end).toString(), this);
+            default:
+                return Property.NONE;
+        }
+    }
+
+    // resolves a property token from markup with slots once they're filled, trimmed as readProperty
+    // would have. Returns null for tokens that resolve to no property, which would have left a
+    // different tree behind them.
+    @Nullable
+    Property property(CharSequence token) throws IOException {
+        int start = 0;
+        int end = token.length();
+        while (start < end && token.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && token.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        Property property = property(token, start, end);
+        return property == Property.NONE ? null : property;
+    }
+
+    private Builder parseProperties(Context context, int start) throws IOException {
+        while (pos < length) {
+            char end = readProperty();
+            if (end == CharReader.EOF) {
+                break;
+            }
+            context.root.property(property(token, tokenStart, tokenEnd));
+            if (end == ')') {
+                return context.root;
+            }
+        }
+        // the whole of the unterminated property list is kept as text
+        return context.root.text(input.subSequence(start, length).toString()).fail(CharReader.EOF);
+    }
+
+    private char readText(Context context) {
+        int start = pos;
+        while (pos < length) {
+            char c = input.charAt(pos);
+
             if (c == '[' || c == ']') {
+                context.accept(input, start, pos++);
                 return c;
             }
             if (c == '\\') {
-                charEscaped = true;
+                context.accept(input, start, pos);
+                // the escaped char starts the next run of text
+                start = ++pos;
+                pos = Math.min(pos + 1, length);
                 continue;
             }
             if (c == '`') {
-                stringEscaped = true;
+                context.accept(input, start, pos);
+                int close = indexOf('`', ++pos);
+                context.accept(input, pos, close);
+                start = pos = Math.min(close + 1, length);
                 continue;
             }
+            if (presets.isDelimiter(c)) {
+                int type = presets.match(input, pos);
+                if (type != MUPresets.LITERAL) {
+                    String delimiter = presets.getStyle(type).getDelimiter();
+                    context.accept(input, start, pos);
+                    context.mark(delimiter, type);
+                    start = pos += delimiter.length();
+                    continue;
+                }
+            }
 
-            context.accept(c);
+            pos++;
         }
+        context.accept(input, start, pos);
         return CharReader.EOF;
     }
 
-    private char readProperty(StringBuilder buffer, StringBuilder raw) throws IOException {
+    private char readProperty() {
         int depth = 0;
-        boolean charEscaped = false;
-        boolean stringEscaped = false;
-        while (reader.next()) {
-            char c = reader.character();
-            raw.append(c);
+        int begin = pos;
+        int start = pos;
+        StringBuilder unescaped = null;
+        while (pos < length) {
+            char c = input.charAt(pos++);
 
-            if (charEscaped) {
-                buffer.append(c);
-                charEscaped = false;
-                continue;
-            }
-            if (stringEscaped) {
-                if (c == '`') {
-                    stringEscaped = false;
+            if (c == '\\' || c == '`') {
+                // escapes are rare in properties so only then is the token copied
+                if (unescaped == null) {
+                    unescaped = new StringBuilder();
+                }
+                unescaped.append(input, start, pos - 1);
+                if (c == '\\') {
+                    start = pos;
+                    pos = Math.min(pos + 1, length);
                 } else {
-                    buffer.append(c);
+                    int close = indexOf('`', pos);
+                    unescaped.append(input, pos, close);
+                    start = pos = Math.min(close + 1, length);
                 }
                 continue;
             }
-            if (c == '\\') {
-                charEscaped = true;
-                continue;
-            }
-            if (c == '`') {
-                stringEscaped = true;
-                continue;
-            }
-            if (c == ',') {
-                if (depth < 1) {
-                    return c;
-                }
-                buffer.append(c);
-                continue;
+            if (c == ',' && depth < 1) {
+                return token(unescaped, begin, start, pos - 1, c);
             }
             if (c == ')') {
                 if (depth < 1) {
-                    return c;
+                    return token(unescaped, begin, start, pos - 1, c);
                 }
                 depth--;
-                buffer.append(c);
-                continue;
             }
             if (c == '(') {
                 depth++;
             }
-            buffer.append(c);
         }
-        return CharReader.EOF;
+        return token(unescaped, begin, start, pos, CharReader.EOF);
     }
 
-    public static Text.Builder parse(String input, MUPresets presets, Property.Predicate predicate) throws IOException {
-        CharReader reader = new CharReader(input);
-        return parse(reader, presets, predicate);
+    // the token read from [begin, end) of the input, the last unescaped part of which starts at start
+    private char token(StringBuilder unescaped, int begin, int start, int end, char c) {
+        if (unescaped == null) {
+            token = input;
+            tokenStart = start;
+            tokenEnd = end;
+        } else {
+            token = unescaped.append(input, start, end);
+            tokenStart = 0;
+            tokenEnd = unescaped.length();
+        }
+        while (tokenStart < tokenEnd && token.charAt(tokenStart) <= ' ') {
+            tokenStart++;
+        }
+        while (tokenEnd > tokenStart && token.charAt(tokenEnd - 1) <= ' ') {
+            tokenEnd--;
+        }
+        if (slots != null) {
+            // includes the tokens of lists that are left unclosed and kept as text
+            for (int i = Slots.indexIn(input, begin, end); i != -1; i = Slots.indexIn(input, i + 1, end)) {
+                slots.set(Slots.index(input.charAt(i)));
+            }
+        }
+        return c;
+    }
+
+    private int indexOf(char c, int from) {
+        for (int i = from; i < length; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    public static List<Property> properties(String input, MUPresets presets) throws IOException {
+        Parser parser = new Parser(input, presets);
+        List<Property> properties = new ArrayList<>();
+        while (parser.pos < parser.length) {
+            char end = parser.readProperty();
+            Property property = parser.property(parser.token, parser.tokenStart, parser.tokenEnd);
+            if (property != Property.NONE) {
+                properties.add(property);
+            }
+            if (end != ',') {
+                break;
+            }
+        }
+        return properties;
+    }
+
+    // true if the input contains nothing that the parser would treat as syntax
+    public static boolean isPlain(CharSequence input, MUPresets presets) {
+        return presets.getSyntaxChars().isPlain(input);
+    }
+
+    public static Node compile(CharSequence input, MUPresets presets) throws IOException {
+        return compile(input, presets, MULimits.DEFAULT);
+    }
+
+    public static Node compile(CharSequence input, MUPresets presets, MULimits limits) throws IOException {
+        return new Parser(input, presets, limits).compile();
+    }
+
+    public static Node compile(CharSequence input, MUPresets presets, MULimits limits, @Nullable MUBudget budget) throws IOException {
+        return new Parser(input, presets, limits, budget).compile();
+    }
+
+    public static Node compile(CharSequence input, MUPresets presets, MULimits limits, @Nullable MUBudget budget, @Nullable HoverCache hoverCache) throws IOException {
+        return new Parser(input, presets, limits, budget, hoverCache).compile();
+    }
+
+    public static Node compile(Reader reader, MUPresets presets, MULimits limits) throws IOException {
+        StringBuilder input = new StringBuilder();
+        char[] buffer = new char[256];
+        for (int read; (read = reader.read(buffer)) != -1; ) {
+            input.append(buffer, 0, read);
+        }
+        return compile(input, presets, limits);
+    }
+
+    public static Text.Builder parse(CharSequence input, MUPresets presets, Property.Predicate predicate) throws IOException {
+        return parse(input, presets, MULimits.DEFAULT, predicate);
+    }
+
+    public static Text.Builder parse(CharSequence input, MUPresets presets, MULimits limits, Property.Predicate predicate) throws IOException {
+        return compile(input, presets, limits).build(predicate);
+    }
+
+    public static List<MUError> validate(CharSequence input, MUPresets presets, MULimits limits, Property.Predicate predicate) {
+        return new Parser(input, presets, limits).validate(predicate);
+    }
+
+    /**
+     * Returns the names of the colors, styles and presets permitted by the predicate that complete the
+     * property being typed at the end of the input, if there is one
+     */
+    public static List<String> complete(CharSequence input, MUPresets presets, MULimits limits, Property.Predicate predicate) {
+        int start = new Parser(input, presets, limits).getCompletionStart();
+        if (start == -1) {
+            return Collections.emptyList();
+        }
+        return presets.getClassifier().complete(input, start, input.length(), predicate);
+    }
+
+    /**
+     * Writes the text of the input that would be visible once rendered (as Text.toPlain() would) to
+     * the Appendable, without building any Text
+     */
+    public static void strip(CharSequence input, MUPresets presets, MULimits limits, Property.Predicate predicate, Appendable out) throws IOException {
+        if (input.length() > limits.getMaxLength()) {
+            out.append(input);
+            return;
+        }
+        StringBuilder text = new StringBuilder(input.length());
+        if (!new Parser(input, presets, limits).strip(predicate, text)) {
+            text.setLength(0);
+            compile(input, presets, limits).accept(new ParseListener() {
+                @Override
+                public void onText(CharSequence chars) {
+                    text.append(chars);
+                }
+            }, predicate);
+        }
+        out.append(text);
     }
 
+    /**
+     * Parses the input and reports it to the listener rather than building Text
+     */
+    public static void parse(CharSequence input, MUPresets presets, MULimits limits, Property.Predicate predicate, ParseListener listener) throws IOException {
+        compile(input, presets, limits).accept(listener, predicate);
+    }
+
+    public static Text.Builder parse(Reader reader, MUPresets presets, MULimits limits, Property.Predicate predicate) throws IOException {
+        return compile(reader, presets, limits).build(predicate);
+    }
+
+    /**
+     * @deprecated use parse(CharSequence, MUPresets, Property.Predicate)
+     */
+    @Deprecated
     public static Text.Builder parse(CharReader reader, MUPresets presets, Property.Predicate predicate) throws IOException {
-        return new Parser(reader, presets, predicate).parse();
+        return parse(read(reader), presets, predicate);
+    }
+
+    private static String read(CharReader reader) throws IOException {
+        StringBuilder input = new StringBuilder();
+        while (reader.next()) {
+            input.append(reader.character());
+        }
+        return input.toString();
+    }
+
+    // thrown when the input breaks a limit, unwinding the parse so the input can be shown as plain text
+    static class LimitExceeded extends RuntimeException {
+
+        private LimitExceeded() {
+            super(null, null, false, false);
+        }
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package me.dags.text.syntax;
+
+import me.dags.text.MUBudget;
+import me.dags.text.MUPerms;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+import org.spongepowered.api.text.format.TextColor;
+import org.spongepowered.api.text.format.TextStyle;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared Property instances. Colors and styles are interned per TextColor/TextStyle, and hover
+ * properties are shared through the parser's HoverCache when it has one.
+ */
+final class Properties {
+
+    private static final Map<TextColor, Property> colors = new ConcurrentHashMap<>();
+    private static final Map<TextStyle, Property> styles = new ConcurrentHashMap<>();
+
+    private Properties() {}
+
+    static Property color(TextColor color) {
+        return colors.computeIfAbsent(color, c -> Property.of(Classifier.Kind.COLOR, c, c, (b, p) -> b.color(c)));
+    }
+
+    static Property style(TextStyle style) {
+        return styles.computeIfAbsent(style, s -> Property.of(Classifier.Kind.STYLE, s, s, (b, p) -> b.style(s)));
+    }
+
+    static Property hover(String in, Parser parser) throws IOException {
+        // hovers nested beyond the limit are shown as their plain source text
+        int depth = Math.max(0, parser.limits.getMaxHoverDepth() - parser.hoverDepth);
+        HoverCache cache = parser.hoverCache;
+        HoverCache.Key key = cache == null ? null : new HoverCache.Key(in, parser.presets, parser.limits, depth, null);
+        HoverCache.Hover hover = key == null ? null : cache.hovers.getIfPresent(key);
+        boolean cached = hover != null;
+        if (!cached) {
+            Node node;
+            int nodes = 0;
+            int nested = 0;
+            // most hover text is plain so there's nothing to parse
+            if (depth == 0 || Parser.isPlain(in, parser.presets)) {
+                node = Node.of(in);
+            } else {
+                Parser child = parser.hover(in);
+                node = child.parseNode();
+                nodes = child.nodes;
+                nested = child.hovers;
+            }
+            parser.countHover();
+            Property property = Property.of(Classifier.Kind.HOVER, node, MUPerms.HOVER, (b, p) -> b.onHover(TextActions.showText(hoverText(cache, key, node, p))));
+            hover = new HoverCache.Hover(property, nodes, nested);
+            if (key != null) {
+                cache.hovers.put(key, hover);
+            }
+        }
+        // a cached hover still counts towards the parser's limits and budget
+        parser.count(hover.nodes, cached);
+        parser.hovers += 1 + hover.hovers;
+        return hover.property;
+    }
+
+    private static Text hoverText(@Nullable HoverCache cache, HoverCache.Key hover, Node node, Property.Predicate predicate) throws IOException {
+        if (cache == null || !isShared(predicate)) {
+            return node.build(predicate).build();
+        }
+
+        HoverCache.Key key = new HoverCache.Key(hover.source, hover.presets, hover.limits, hover.depth, MUBudget.unwrap(predicate));
+        Text text = cache.texts.getIfPresent(key);
+        if (text == null) {
+            text = node.build(predicate).build();
+            // text built once the budget ran out is missing its properties
+            if (!MUBudget.isExhausted(predicate)) {
+                cache.texts.put(key, text);
+            }
+        }
+        return text;
+    }
+
+    // only predicates that stand for a whole class of subjects are worth keying on, one-off
+    // predicates (ie lambdas created per render) would just churn the cache
+    private static boolean isShared(Property.Predicate predicate) {
+        predicate = MUBudget.unwrap(predicate);
+        return predicate instanceof MUPerms.Snapshot || predicate == MUPerms.ANY || predicate == MUPerms.NONE;
+    }
+}
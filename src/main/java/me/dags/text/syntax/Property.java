@@ -52,106 +52,346 @@ package me.dags.text.syntax;
 
 import me.dags.text.MUPerms;
 import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.ClickAction;
 import org.spongepowered.api.text.action.TextActions;
 import org.spongepowered.api.text.format.TextColor;
 import org.spongepowered.api.text.format.TextStyle;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 public interface Property {
 
-    Property NONE = b -> {};
+    Property NONE = of(null, (b, p) -> {});
     Map<String, TextColor> COLORS = Collections.unmodifiableMap(textColors());
     Map<String, TextStyle> STYLES = Collections.unmodifiableMap(textStyles());
 
-    void apply(Text.Builder builder);
+    /**
+     * The object passed to a Predicate to decide whether this property may be applied
+     * (a TextColor, TextStyle, preset name, or one of the MUPerms action names)
+     */
+    Object getPermission();
+
+    /**
+     * The id MUPerms knows this property's permission object by, or -1 if it has none
+     */
+    default int getPermissionId() {
+        Object permission = getPermission();
+        return permission == null ? -1 : MUPerms.id(permission);
+    }
+
+    /**
+     * The kind of property, or NONE for properties not created by the parser
+     */
+    default Classifier.Kind getKind() {
+        return Classifier.Kind.NONE;
+    }
+
+    /**
+     * The value this property applies (a TextColor, TextStyle, preset name, command, suggestion or
+     * url String, or the hover's Node)
+     */
+    default Object getValue() {
+        return null;
+    }
+
+    void apply(Text.Builder builder, Predicate predicate) throws IOException;
+
+    /**
+     * Applies the property with every nested property permitted, or with the predicate it was
+     * bound to by one of the deprecated parse methods that take one
+     *
+     * @deprecated properties are now applied with a Predicate, use apply(Text.Builder, Predicate)
+     */
+    @Deprecated
+    default void apply(Text.Builder builder) {
+        try {
+            apply(builder, MUPerms.ANY);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    default boolean test(Predicate predicate) {
+        return this != NONE && predicate.test(this);
+    }
 
     interface Predicate {
 
         boolean test(Object property);
+
+        default boolean test(Property property) {
+            return test(property.getPermission());
+        }
     }
 
+    interface Action {
+
+        void apply(Text.Builder builder, Predicate predicate) throws IOException;
+
+    /**
+     * Applies the property with every nested property permitted, or with the predicate it was
+     * bound to by one of the deprecated parse methods that take one
+     *
+     * @deprecated properties are now applied with a Predicate, use apply(Text.Builder, Predicate)
+     */
+    @Deprecated
+    default void apply(Text.Builder builder) {
+        try {
+            apply(builder, MUPerms.ANY);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    }
+
+    static Property of(Object permission, Action action) {
+        return of(Classifier.Kind.NONE, null, permission, action);
+    }
+
+    static Property of(Classifier.Kind kind, Object value, Object permission, Action action) {
+        int id = permission == null ? -1 : MUPerms.id(permission);
+        return new Property() {
+            @Override
+            public Object getPermission() {
+                return permission;
+            }
+
+            @Override
+            public int getPermissionId() {
+                return id;
+            }
+
+            @Override
+            public Classifier.Kind getKind() {
+                return kind;
+            }
+
+            @Override
+            public Object getValue() {
+                return value;
+            }
+
+            @Override
+            public void apply(Text.Builder builder, Predicate predicate) throws IOException {
+                action.apply(builder, predicate);
+            }
+        };
+    }
+
+    // Accepts the same strings as the pattern:
+    //   ((ht|f)tps?://|www\.)?[\da-z-]+(\.[\da-z-]+)*((\.[a-z]{2,6})+|:[0-9]+)(/[path chars]*)*
+    // but in a single left to right pass. The www. prefix is itself a valid host label so needs
+    // no special handling, a run of labels ending in a tld is equivalent to at least two labels
+    // where the last is 2-6 lowercase letters, and the path chars include '/' so the repeated
+    // path group is just a '/' followed by any number of path chars.
     static boolean isURL(String in) {
-        return in.matches("^((ht|f)tp(s?)://|www\\.)?([\\da-z-]+)(\\.([\\da-z-]+))*((\\.[a-z]{2,6})+|:[0-9]+)(/[\\p{Alnum}.,%_=?&#\\-+()\\[\\]\\*$~@!:/{};']*)*?$");
+        return isURL(in, 0, in.length());
     }
 
-    static Property parse(String in, MUPresets presets, Predicate predicate) throws IOException {
-        if (in.isEmpty()) {
-            return Property.NONE;
+    static boolean isURL(CharSequence in, int from, int to) {
+        int i = from + scheme(in, from, to);
+
+        int labels = 0;
+        boolean tld;
+        while (true) {
+            int start = i;
+            boolean letters = true;
+            for (char c; i < to && isHostChar(c = in.charAt(i)); i++) {
+                letters &= c >= 'a' && c <= 'z';
+            }
+            if (i == start) {
+                return false;
+            }
+            labels++;
+            tld = letters && i - start >= 2 && i - start <= 6;
+            if (i < to && in.charAt(i) == '.') {
+                i++;
+                continue;
+            }
+            break;
+        }
+
+        if (i < to && in.charAt(i) == ':') {
+            int start = ++i;
+            while (i < to && in.charAt(i) >= '0' && in.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+        } else if (labels < 2 || !tld) {
+            return false;
+        }
+
+        if (i == to) {
+            return true;
+        }
+        if (in.charAt(i) != '/') {
+            return false;
         }
-        if (in.startsWith("//")) {
-            return parseSuggestion(in.substring(1), predicate);
+        for (i++; i < to; i++) {
+            if (!isPathChar(in.charAt(i))) {
+                return false;
+            }
         }
-        if (in.startsWith("/")) {
-            return parseCommand(in, predicate);
+        return true;
+    }
+
+    // returns the length of a leading http://, https://, ftp:// or ftps://, or 0
+    static int scheme(CharSequence in, int start, int end) {
+        int i;
+        if (startsWith(in, start, end, "http")) {
+            i = 4;
+        } else if (startsWith(in, start, end, "ftp")) {
+            i = 3;
+        } else {
+            return 0;
         }
-        if (isURL(in)) {
-            return parseURL(in, predicate);
+        if (startsWith(in, start + i, end, "s")) {
+            i++;
         }
-        Optional<TextColor> color = match(in, COLORS);
-        if (color.isPresent()) {
-            return parseColor(color.get(), predicate);
+        return startsWith(in, start + i, end, "://") ? i + 3 : 0;
+    }
+
+    static boolean startsWith(CharSequence in, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
         }
-        Optional<TextStyle> style = match(in, STYLES);
-        if (style.isPresent()) {
-            return parseStyle(style.get(), predicate);
+        for (int i = 0; i < prefix.length(); i++) {
+            if (in.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
         }
-        return parseHover(in, presets, predicate);
+        return true;
     }
 
-    static Property parseColor(TextColor color, Predicate predicate) {
-        if (predicate.test(color)) {
-            return b -> b.color(color);
+    static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+    }
+
+    static boolean isPathChar(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+            return true;
         }
-        return NONE;
+        return ".,%_=?&#-+()[]*$~@!:/{};'".indexOf(c) != -1;
     }
 
-    static Property parseCommand(String in, Predicate predicate) {
-        if (predicate.test(MUPerms.COMMAND)) {
-            return b -> b.onClick(TextActions.runCommand(in));
+    static Property parse(String in, MUPresets presets) throws IOException {
+        return new Parser(in, presets).property(in, 0, in.length());
+    }
+
+    static Property parseColor(TextColor color) {
+        return Properties.color(color);
+    }
+
+    static Property parseCommand(String in) {
+        ClickAction<?> action = TextActions.runCommand(in);
+        return of(Classifier.Kind.COMMAND, in, MUPerms.COMMAND, (b, p) -> b.onClick(action));
+    }
+
+    static Property parseHover(String in, MUPresets presets) throws IOException {
+        return Properties.hover(in, new Parser(in, presets));
+    }
+
+    static Property parsePreset(MUStyle style) {
+        return style.getProperty();
+    }
+
+    static Property parseStyle(TextStyle style) {
+        return Properties.style(style);
+    }
+
+    static Property parseSuggestion(String in) {
+        ClickAction<?> action = TextActions.suggestCommand(in);
+        return of(Classifier.Kind.SUGGESTION, in, MUPerms.SUGGESTION, (b, p) -> b.onClick(action));
+    }
+
+    /**
+     * Returns the property with its predicate fixed, or NONE if the predicate doesn't permit it
+     *
+     * @deprecated only for the deprecated parse methods that take a Predicate
+     */
+    @Deprecated
+    static Property bind(Property property, Predicate predicate) {
+        if (!property.test(predicate)) {
+            return NONE;
         }
-        return NONE;
+        return of(property.getKind(), property.getValue(), property.getPermission(), (b, p) -> property.apply(b, predicate));
+    }
+
+    /**
+     * @deprecated the predicate is now given when the property is applied, use parse(String, MUPresets)
+     */
+    @Deprecated
+    static Property parse(String in, MUPresets presets, Predicate predicate) throws IOException {
+        return bind(parse(in, presets), predicate);
+    }
+
+    /**
+     * @deprecated use parseColor(TextColor)
+     */
+    @Deprecated
+    static Property parseColor(TextColor color, Predicate predicate) {
+        return bind(parseColor(color), predicate);
     }
 
+    /**
+     * @deprecated use parseCommand(String)
+     */
+    @Deprecated
+    static Property parseCommand(String in, Predicate predicate) {
+        return bind(parseCommand(in), predicate);
+    }
+
+    /**
+     * @deprecated use parseHover(String, MUPresets)
+     */
+    @Deprecated
     static Property parseHover(String in, MUPresets presets, Predicate predicate) throws IOException {
-        if (predicate.test(MUPerms.HOVER)) {
-            Text text = Parser.parse(in, presets, predicate).build();
-            return b -> b.onHover(TextActions.showText(text));
-        }
-        return NONE;
+        return bind(parseHover(in, presets), predicate);
     }
 
+    /**
+     * @deprecated use parseStyle(TextStyle)
+     */
+    @Deprecated
     static Property parseStyle(TextStyle style, Predicate predicate) {
-        if (predicate.test(style)) {
-            return b -> b.style(style);
-        }
-        return NONE;
+        return bind(parseStyle(style), predicate);
     }
 
+    /**
+     * @deprecated use parseSuggestion(String)
+     */
+    @Deprecated
     static Property parseSuggestion(String in, Predicate predicate) {
-        if (predicate.test(MUPerms.SUGGESTION)) {
-            return b -> b.onClick(TextActions.suggestCommand(in));
-        }
-        return NONE;
+        return bind(parseSuggestion(in), predicate);
     }
 
+    /**
+     * @deprecated use parseURL(String), which returns NONE for a malformed url
+     */
+    @Deprecated
     static Property parseURL(String in, Predicate predicate) throws IOException {
-        if (predicate.test(MUPerms.URL)) {
-            URL url = new URL(in.trim());
-            return b -> b.onClick(TextActions.openUrl(url));
-        }
-        return NONE;
+        return bind(parseURL(in), predicate);
     }
 
-    static <T> Optional<T> match(String in, Map<String, T> map) {
-        return Optional.ofNullable(map.get(in));
+    static Property parseURL(String in) {
+        try {
+            String url = in.trim();
+            ClickAction<?> action = TextActions.openUrl(new URL(url));
+            return of(Classifier.Kind.URL, url, MUPerms.URL, (b, p) -> b.onClick(action));
+        } catch (MalformedURLException e) {
+            return NONE;
+        }
     }
 
     static Map<String, String[]> altNames() {
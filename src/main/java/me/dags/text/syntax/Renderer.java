@@ -1,5 +1,7 @@
 package me.dags.text.syntax;
 
+import me.dags.text.MULimits;
+import me.dags.text.MUMetrics;
 import me.dags.text.preset.MUPresets;
 import org.spongepowered.api.text.LiteralText;
 import org.spongepowered.api.text.Text;
@@ -15,17 +17,45 @@ import java.io.IOException;
 public class Renderer {
 
     private final MUPresets presets;
+    private final MULimits limits;
     private final Property.Predicate predicate;
+    private final MUMetrics metrics;
+    private int nodes = 0;
+    private int hovers = 0;
 
     public Renderer(MUPresets presets, Property.Predicate predicate) {
+        this(presets, MULimits.DEFAULT, predicate);
+    }
+
+    public Renderer(MUPresets presets, MULimits limits, Property.Predicate predicate) {
+        this(presets, limits, predicate, MUMetrics.NONE);
+    }
+
+    public Renderer(MUPresets presets, MULimits limits, Property.Predicate predicate, MUMetrics metrics) {
         this.presets = presets;
+        this.limits = limits;
         this.predicate = predicate;
+        this.metrics = metrics;
     }
 
     public Text.Builder render(Text text) throws IOException {
         return render(text, null);
     }
 
+    /**
+     * The number of [elements] parsed from the literal text rendered so far
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The number of hover properties parsed from the literal text rendered so far
+     */
+    public int getHovers() {
+        return hovers;
+    }
+
     private Text.Builder render(Text text, @Nullable Text.Builder parent) throws IOException {
         Text.Builder builder;
 
@@ -86,7 +116,10 @@ public class Renderer {
         if (text.getContent().isEmpty()) {
             return text.toBuilder().removeAll();
         } else {
-            Text.Builder builder = Parser.parse(text.getContent(), presets, predicate);
+            Parser parser = new Parser(text.getContent(), presets, limits);
+            Text.Builder builder = parser.compile().build(predicate, metrics);
+            nodes += parser.getNodes();
+            hovers += parser.getHovers();
             inherit(text, builder);
             return builder;
         }
@@ -113,4 +146,8 @@ public class Renderer {
     public static Text.Builder render(Text text, MUPresets presets, Property.Predicate predicate) throws IOException {
         return new Renderer(presets, predicate).render(text);
     }
+
+    public static Text.Builder render(Text text, MUPresets presets, MULimits limits, Property.Predicate predicate) throws IOException {
+        return new Renderer(presets, limits, predicate).render(text);
+    }
 }
@@ -0,0 +1,325 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import me.dags.text.MULimits;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
+import org.spongepowered.api.text.Text;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Markup with slots standing in for values that are only known later, parsed once so that filling
+ * it means handling the values and not the markup around them. Slots are the private use chars
+ * from U+E000, one per value. Values that contain syntax could change the shape of the markup, so
+ * only values that are accepted can be filled in. A value is either a String, which is filled in
+ * as text, or a Text, which is spliced in as a child where its slot falls within text, and filled
+ * in as its plain text where its slot falls within a property.
+ */
+public final class Slots {
+
+    public static final int MAX_SLOTS = 0x1900;
+
+    private static final char FIRST = '\uE000';
+
+    private final Node node;
+    private final int slots;
+    private final int nodes;
+    // the length of the input less its slots, and the number of times each slot appears in it
+    private final int length;
+    private final int[] uses;
+    // the slots that appear within a property list, where ',' and brackets are syntax too
+    private final BitSet properties;
+    // the chars a value must not start with in case the text before its slot makes them syntax: a '('
+    // after a ']' opens a property list, and the later chars of a delimiter could complete it
+    private final String leading;
+    private final Set<Node> filled;
+    private final Property.Predicate predicate;
+    private final Map<Node, Text> prebuilt;
+    private final MUPresets presets;
+    private final MULimits limits;
+
+    private Slots(Node node, int slots, Parser parser, String input, MUPresets presets, MULimits limits, Property.Predicate predicate) throws IOException {
+        this.node = node;
+        this.slots = slots;
+        this.nodes = parser.nodes;
+        this.properties = parser.slots;
+        this.presets = presets;
+        this.limits = limits;
+        this.predicate = predicate;
+        this.uses = new int[slots];
+        this.filled = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.prebuilt = new IdentityHashMap<>();
+
+        int length = input.length();
+        for (int i = 0; i < input.length(); i++) {
+            if (isSlot(input.charAt(i))) {
+                uses[index(input.charAt(i))]++;
+                length--;
+            }
+        }
+        this.length = length;
+
+        StringBuilder leading = new StringBuilder("(");
+        for (MUStyle style : presets.getDelimitedStyles().values()) {
+            leading.append(style.getDelimiter(), 1, style.getDelimiter().length());
+        }
+        this.leading = leading.toString();
+
+        if (find(node)) {
+            prebuild(node);
+        } else {
+            prebuilt.put(node, node.build(predicate).build());
+        }
+    }
+
+    /**
+     * True if the value can be filled into the slot without changing how the markup around it parses
+     */
+    public boolean accepts(int slot, Object value) {
+        if (value instanceof Text) {
+            // Text is only parsed when it fills a property
+            return !properties.get(slot) || accepts(slot, ((Text) value).toPlain());
+        }
+        if (!(value instanceof String)) {
+            return false;
+        }
+        return accepts(slot, (String) value);
+    }
+
+    private boolean accepts(int slot, String value) {
+        if (value.isEmpty() || !presets.getSyntaxChars().isPlain(value) || indexIn(value, 0, value.length()) != -1) {
+            return false;
+        }
+        if (leading.indexOf(value.charAt(0)) != -1) {
+            return false;
+        }
+        if (properties.get(slot)) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '(' || c == ')') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the slots with the values, which must all be accepted, and builds the result for the
+     * predicate. Returns null if the filled markup would break the limits, or a property filled by
+     * a value resolves to no property, in which case it should be rendered in full instead.
+     */
+    @Nullable
+    public Text.Builder build(Object[] values, Property.Predicate predicate) throws IOException {
+        if (values.length != slots) {
+            throw new IllegalArgumentException("Expected " + slots + " values but got " + values.length);
+        }
+
+        long length = this.length;
+        for (int i = 0; i < slots; i++) {
+            if (values[i] instanceof String) {
+                length += (long) uses[i] * ((String) values[i]).length();
+            }
+        }
+        if (length > limits.getMaxLength()) {
+            return null;
+        }
+
+        Map<Node, Text> prebuilt = predicate.equals(this.predicate) ? this.prebuilt : null;
+        Text text = prebuilt == null ? null : prebuilt.get(node);
+        if (text != null) {
+            return text.toBuilder();
+        }
+
+        Parser parser = new Parser("", presets, limits);
+        parser.nodes = nodes;
+        try {
+            Node filled = node.fill(this, values, parser);
+            return filled == null ? null : filled.build(new TextListener(predicate, values), prebuilt);
+        } catch (Parser.LimitExceeded e) {
+            return null;
+        }
+    }
+
+    /**
+     * True if the slot appears within a property list, where a Text value is filled in as its plain text
+     */
+    public boolean inProperty(int slot) {
+        return properties.get(slot);
+    }
+
+    boolean contains(Node node) {
+        return filled.contains(node);
+    }
+
+    // records the Nodes holding slots, returning true if this is one of them. The tree is walked
+    // with a stack rather than by recursion, children ahead of their parents.
+    private boolean find(Node node) {
+        List<Node> order = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node next = stack.pop();
+            order.add(next);
+            for (Node child : next.getChildren()) {
+                stack.push(child);
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node next = order.get(i);
+            boolean found = indexIn(next.getText(), 0, next.getText().length()) != -1;
+            for (Property property : next.getProperties()) {
+                found |= property instanceof Token;
+            }
+            for (Node child : next.getChildren()) {
+                found |= filled.contains(child);
+            }
+            if (found) {
+                filled.add(next);
+            }
+        }
+        return filled.contains(node);
+    }
+
+    // builds the children without slots for the predicate the slots were compiled for. Children
+    // that turn out to be transparent are inlined rather than looked up, so are built as usual.
+    private void prebuild(Node node) throws IOException {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            for (Node child : stack.pop().getChildren()) {
+                if (filled.contains(child)) {
+                    stack.push(child);
+                } else {
+                    prebuilt.put(child, child.build(predicate).build());
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the input, in which the chars returned by slot(0) to slot(slots - 1) stand in for the
+     * values that will fill it. Returns null if the input breaks the limits, or holds private use
+     * chars beyond its slots.
+     */
+    @Nullable
+    public static Slots compile(String input, int slots, MUPresets presets, MULimits limits, Property.Predicate predicate) throws IOException {
+        if (slots > MAX_SLOTS) {
+            return null;
+        }
+        for (int i = 0; i < input.length(); i++) {
+            if (isSlot(input.charAt(i)) && index(input.charAt(i)) >= slots) {
+                return null;
+            }
+        }
+
+        Parser parser = new Parser(input, presets, limits);
+        parser.slots = new BitSet(slots);
+        try {
+            Node node = parser.parseNode();
+            return new Slots(node, slots, parser, input, presets, limits, predicate);
+        } catch (Parser.LimitExceeded e) {
+            return null;
+        }
+    }
+
+    /**
+     * Splices the values into the input as plain text, as markup that breaks the limits is rendered
+     */
+    public static Text.Builder splice(String input, Object[] values, Property.Predicate predicate) {
+        TextListener listener = new TextListener(predicate, values);
+        listener.onOpen();
+        listener.onText(input);
+        listener.onClose();
+        return listener.getBuilder();
+    }
+
+    public static char slot(int index) {
+        return (char) (FIRST + index);
+    }
+
+    static boolean isSlot(char c) {
+        return c >= FIRST && c < FIRST + MAX_SLOTS;
+    }
+
+    static int index(char c) {
+        return c - FIRST;
+    }
+
+    // returns the index of the first slot in the range, or -1
+    static int indexIn(CharSequence input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (isSlot(input.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // a property whose token holds slots, resolved once they're filled
+    static final class Token implements Property {
+
+        private final String token;
+
+        Token(String token) {
+            this.token = token;
+        }
+
+        String fill(Object[] values) {
+            StringBuilder filled = new StringBuilder(token.length() + 16);
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (isSlot(c)) {
+                    Object value = values[index(c)];
+                    filled.append(value instanceof Text ? ((Text) value).toPlain() : value);
+                } else {
+                    filled.append(c);
+                }
+            }
+            return filled.toString();
+        }
+
+        @Override
+        public Object getPermission() {
+            return token;
+        }
+
+        @Override
+        public void apply(Text.Builder builder, Predicate predicate) {}
+    }
+}
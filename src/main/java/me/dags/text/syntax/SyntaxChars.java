@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import me.dags.text.preset.MUPresets;
+import me.dags.text.preset.MUStyle;
+
+import java.util.Arrays;
+
+/**
+ * The set of chars that can start markup: brackets, escapes and the first char of every preset
+ * delimiter. Input that contains none of them renders as exactly the text it was given.
+ */
+public final class SyntaxChars {
+
+    private static final char[] SYNTAX = {'[', ']', '\\', '`'};
+
+    // one bit per ascii char, plus a sorted array for delimiters outside of ascii
+    private final long low;
+    private final long high;
+    private final char[] other;
+
+    private SyntaxChars(long low, long high, char[] other) {
+        this.low = low;
+        this.high = high;
+        this.other = other;
+    }
+
+    public boolean contains(char c) {
+        if (c < 64) {
+            return (low & (1L << c)) != 0;
+        }
+        if (c < 128) {
+            return (high & (1L << c)) != 0;
+        }
+        return other.length > 0 && Arrays.binarySearch(other, c) >= 0;
+    }
+
+    // returns the index of the first syntax char in the range, or -1
+    public int indexIn(CharSequence input, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (contains(input.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isPlain(CharSequence input) {
+        return indexIn(input, 0, input.length()) == -1;
+    }
+
+    public static SyntaxChars of(MUPresets presets) {
+        StringBuilder chars = new StringBuilder().append(SYNTAX);
+        for (MUStyle style : presets.getDelimitedStyles().values()) {
+            chars.append(style.getDelimiter().charAt(0));
+        }
+        return of(chars);
+    }
+
+    // a table of just the given chars
+    public static SyntaxChars of(CharSequence chars) {
+        long low = 0L;
+        long high = 0L;
+        StringBuilder other = new StringBuilder();
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c < 64) {
+                low |= 1L << c;
+            } else if (c < 128) {
+                high |= 1L << c;
+            } else {
+                other.append(c);
+            }
+        }
+
+        char[] sorted = other.toString().toCharArray();
+        Arrays.sort(sorted);
+        return new SyntaxChars(low, high, sorted);
+    }
+}
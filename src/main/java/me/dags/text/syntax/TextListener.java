@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.syntax;
+
+import org.spongepowered.api.text.Text;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds Text from parse events. The first child of an element with no text of its own is used
+ * as the element's builder, and properties are applied to the builder once its children are in.
+ */
+public class TextListener implements ParseListener {
+
+    private final Property.Predicate predicate;
+    // the values of any slots left in the text, see Slots
+    @Nullable
+    private final Object[] values;
+    // the builder of each open element, null until it has text or a child
+    private final List<Text.Builder> stack = new ArrayList<>();
+    private Text.Builder result = Text.EMPTY.toBuilder();
+
+    public TextListener(Property.Predicate predicate) {
+        this(predicate, null);
+    }
+
+    TextListener(Property.Predicate predicate, @Nullable Object[] values) {
+        this.predicate = predicate;
+        this.values = values;
+    }
+
+    public Property.Predicate getPredicate() {
+        return predicate;
+    }
+
+    public Text.Builder getBuilder() {
+        return result;
+    }
+
+    @Override
+    public void onOpen() {
+        stack.add(null);
+    }
+
+    @Override
+    public void onText(CharSequence text) {
+        int slot = values == null ? -1 : indexOfText(text, 0);
+        if (slot == -1) {
+            stack.set(stack.size() - 1, Text.builder(text.toString()));
+            return;
+        }
+
+        // the text either side of each slot is kept as text, with the slot's Text between
+        Text.Builder builder = Text.builder(text.subSequence(0, slot).toString());
+        while (slot != -1) {
+            builder.append((Text) values[Slots.index(text.charAt(slot))]);
+            int next = indexOfText(text, slot + 1);
+            int end = next == -1 ? text.length() : next;
+            if (end > slot + 1) {
+                builder.append(Text.of(text.subSequence(slot + 1, end).toString()));
+            }
+            slot = next;
+        }
+        stack.set(stack.size() - 1, builder);
+    }
+
+    // the index of the next slot for a Text value, slots for anything else being left as text
+    private int indexOfText(CharSequence text, int from) {
+        for (int i = Slots.indexIn(text, from, text.length()); i != -1; i = Slots.indexIn(text, i + 1, text.length())) {
+            if (values[Slots.index(text.charAt(i))] instanceof Text) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void onProperty(Property property) throws IOException {
+        // an element with no text or children is empty, whatever its properties
+        Text.Builder builder = stack.get(stack.size() - 1);
+        if (builder != null) {
+            property.apply(builder, predicate);
+        }
+    }
+
+    // adds Text built ahead of time as if its Node had been reported as the next child
+    void append(Text text) {
+        Text.Builder parent = stack.get(stack.size() - 1);
+        if (parent == null) {
+            stack.set(stack.size() - 1, text.toBuilder());
+        } else {
+            parent.append(text);
+        }
+    }
+
+    @Override
+    public void onClose() {
+        Text.Builder builder = stack.remove(stack.size() - 1);
+        if (builder == null) {
+            builder = Text.EMPTY.toBuilder();
+        }
+        if (stack.isEmpty()) {
+            result = builder;
+            return;
+        }
+        Text.Builder parent = stack.get(stack.size() - 1);
+        if (parent == null) {
+            stack.set(stack.size() - 1, builder);
+        } else {
+            parent.append(builder.build());
+        }
+    }
+}
@@ -69,15 +69,32 @@ public class Writer {
     private static final Pattern ESCAPE_CHARS = Pattern.compile("[\\[\\](),]");
 
     private final java.io.Writer writer;
+    private int nodes = 0;
+    private int hovers = 0;
 
     public Writer(java.io.Writer writer) {
         this.writer = writer;
     }
 
+    /**
+     * The number of [elements] written so far
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The number of hovers written so far
+     */
+    public int getHovers() {
+        return hovers;
+    }
+
     public void write(Text text, boolean escape) throws IOException {
         if (isPlain(text)) {
             writePlain(text, escape);
         } else {
+            nodes++;
             writer.write('[');
             writePlain(text, escape);
             writer.write(']');
@@ -137,6 +154,7 @@ public class Writer {
 
         HoverAction<?> action = optional.get();
         if (action instanceof HoverAction.ShowText) {
+            hovers++;
             if (comma) {
                 writer.write(',');
             }
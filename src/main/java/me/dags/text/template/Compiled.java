@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.template;
+
+import me.dags.template.Template;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Property;
+import me.dags.text.syntax.Slots;
+import org.spongepowered.api.text.Text;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A template's output parsed once, with a slot in place of each argument. The template is applied
+ * to a probe that answers every key with its slot, and then to sample values to check that the
+ * output only ever depends on the arguments by writing them out as they are.
+ */
+final class Compiled {
+
+    private final String[] keys;
+    private final Slots slots;
+
+    private Compiled(String[] keys, Slots slots) {
+        this.keys = keys;
+        this.slots = slots;
+    }
+
+    /**
+     * Renders the template with the arguments, splicing in those that are Text, or returns null if
+     * any of them hold markup (or can't be written as plain text) so need rendering along with the
+     * rest of the template
+     */
+    @Nullable
+    Text render(Map<String, Object> arguments, Property.Predicate predicate) throws IOException {
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Object value = arguments.get(keys[i]);
+            if (value instanceof Text) {
+                values[i] = value;
+            } else if (isPlain(value)) {
+                values[i] = value.toString();
+            } else {
+                return null;
+            }
+            if (!slots.accepts(i, values[i])) {
+                return null;
+            }
+        }
+        Text.Builder builder = slots.build(values, predicate);
+        return builder == null ? null : builder.build();
+    }
+
+    @Nullable
+    static Compiled of(MUSpec spec, Template template, Property.Predicate predicate) {
+        try {
+            Probe probe = new Probe();
+            String output = apply(template, probe);
+            if (probe.overflow) {
+                return null;
+            }
+
+            String[] keys = probe.keys.keySet().toArray(new String[0]);
+            Map<String, Object> samples = new HashMap<>();
+            StringBuilder expected = new StringBuilder(output.length());
+            for (int i = 0; i < keys.length; i++) {
+                samples.put(keys[i], "$" + i + "$");
+            }
+            for (int i = 0; i < output.length(); i++) {
+                int slot = output.charAt(i) - Slots.slot(0);
+                if (slot >= 0 && slot < keys.length) {
+                    expected.append(samples.get(keys[slot]));
+                } else {
+                    expected.append(output.charAt(i));
+                }
+            }
+            if (!expected.toString().equals(apply(template, samples))) {
+                return null;
+            }
+
+            Slots slots = Slots.compile(output, keys.length, spec.getPresets(), spec.getLimits(), predicate);
+            return slots == null ? null : new Compiled(keys, slots);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String apply(Template template, Map<String, Object> arguments) throws IOException {
+        StringWriter writer = new StringWriter();
+        template.apply(arguments, writer);
+        return writer.toString();
+    }
+
+    private static boolean isPlain(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Character;
+    }
+
+    // answers each key the template asks for with a slot of its own
+    private static class Probe extends AbstractMap<String, Object> {
+
+        private final Map<String, Integer> keys = new LinkedHashMap<>();
+        private boolean overflow = false;
+
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            Integer index = keys.get(key);
+            if (index == null) {
+                if (keys.size() == Slots.MAX_SLOTS) {
+                    overflow = true;
+                    return null;
+                }
+                keys.put((String) key, index = keys.size());
+            }
+            return String.valueOf(Slots.slot(index));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+}
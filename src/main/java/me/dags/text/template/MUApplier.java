@@ -26,6 +26,8 @@
 package me.dags.text.template;
 
 import com.google.common.collect.ImmutableMap;
+import me.dags.text.MUEvents;
+import me.dags.text.MUMetrics;
 import me.dags.text.syntax.Property;
 import org.spongepowered.api.service.permission.Subject;
 import org.spongepowered.api.text.Text;
@@ -33,11 +35,11 @@ import org.spongepowered.api.text.TextElement;
 import org.spongepowered.api.text.transform.SimpleTextFormatter;
 import org.spongepowered.api.text.transform.SimpleTextTemplateApplier;
 
-import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class MUApplier extends SimpleTextTemplateApplier {
@@ -55,17 +57,24 @@ public class MUApplier extends SimpleTextTemplateApplier {
     public ImmutableMap<String, TextElement> getParameters() {
         return ImmutableMap.copyOf(arguments.entrySet().stream().collect(Collectors.toMap(
                 Map.Entry::getKey,
-                e -> template.spec.render(e.getValue().toString())
+                e -> render(e.getValue())
         )));
     }
 
+    /**
+     * Text arguments are kept as they are and spliced into the rendered template, keeping their
+     * formatting, rather than being written as markup and parsed again
+     */
     @Override
     public void setParameter(String key, TextElement element) {
         checkNotNull(key, "key");
+        if (element instanceof Text) {
+            arguments.put(key, element);
+            return;
+        }
         Text.Builder builder = Text.builder();
         element.applyTo(builder);
-        String value = template.spec.write(builder.build());
-        arguments.put(key, value);
+        arguments.put(key, builder.build());
     }
 
     @Override
@@ -97,6 +106,32 @@ public class MUApplier extends SimpleTextTemplateApplier {
         return this;
     }
 
+    /**
+     * Renders the value as markup under the predicate, rather than the one the template is rendered
+     * with, and splices the result into the template. Chat formats can scope a player's message to
+     * the player while the rest of the format stays trusted. Text is already rendered so can't be
+     * scoped, and is rejected rather than spliced in unchecked.
+     */
+    public MUApplier with(String key, Object value, Property.Predicate predicate) {
+        checkNotNull(key, "key");
+        checkArgument(!(value instanceof TextElement), "Text can't be scoped to a predicate: %s", key);
+        arguments.put(key, new Scoped(value.toString(), predicate));
+        return this;
+    }
+
+    public MUApplier with(String key, Object value, Subject subject) {
+        return with(key, value, template.spec.getPermissions().wrap(subject));
+    }
+
+    /**
+     * Adds the value as plain text, which is never parsed as markup
+     */
+    public MUApplier literal(String key, Object value) {
+        checkNotNull(key, "key");
+        arguments.put(key, Text.of(value.toString()));
+        return this;
+    }
+
     public MUApplier with(Map map) {
         for (Object o : map.entrySet()) {
             Map.Entry entry = (Map.Entry) o;
@@ -115,14 +150,89 @@ public class MUApplier extends SimpleTextTemplateApplier {
     }
 
     public Text render() {
+        MUMetrics metrics = template.spec.getMetrics();
+        long start = metrics.start();
+        long event = MUEvents.start();
+        // events report the template's source whichever way it's rendered, and only while recording
+        String input = event == 0L ? "" : template.toString();
+        MUTemplate.RenderKey key = template.cache == null ? null : new MUTemplate.RenderKey(arguments, predicate);
+        Text text = key == null ? null : template.cache.getIfPresent(key);
+        if (text != null) {
+            MUEvents.commit("template", template.spec.getId(), event, input, 0, 0);
+            metrics.record(MUMetrics.Operation.TEMPLATE, start);
+            return text;
+        }
         try {
-            StringWriter writer = new StringWriter();
-            template.apply(arguments, writer);
-            writer.flush();
-            return template.spec.render(predicate, writer.toString());
+            Map<String, Object> arguments = scoped();
+            // the compiled template only takes plain arguments, others are rendered with the whole template
+            text = template.compiled == null ? null : template.compiled.render(arguments, predicate);
+            if (text == null) {
+                text = template.spliced.render(template.spec, template.template, arguments, predicate);
+            }
+            if (key != null) {
+                template.cache.put(key.copy(), text);
+            }
         } catch (Throwable t) {
             t.printStackTrace();
-            return Text.EMPTY;
+            text = Text.EMPTY;
+        }
+        // the nodes and hovers are reported by the event for the render of the template's output, if any
+        MUEvents.commit("template", template.spec.getId(), event, input, 0, 0);
+        metrics.record(MUMetrics.Operation.TEMPLATE, start);
+        return text;
+    }
+
+    private Text render(Object value) {
+        if (value instanceof Text) {
+            return (Text) value;
+        }
+        if (value instanceof Scoped) {
+            return template.spec.render(((Scoped) value).predicate, ((Scoped) value).value);
+        }
+        return template.spec.render(value.toString());
+    }
+
+    // the arguments with those scoped to their own predicate rendered
+    private Map<String, Object> scoped() {
+        Map<String, Object> scoped = arguments;
+        for (Map.Entry<String, Object> entry : arguments.entrySet()) {
+            if (entry.getValue() instanceof Scoped) {
+                if (scoped == arguments) {
+                    scoped = new HashMap<>(arguments);
+                }
+                scoped.put(entry.getKey(), render(entry.getValue()));
+            }
+        }
+        return scoped;
+    }
+
+    // a value to be rendered under its own predicate, kept as it is until the template is rendered
+    // so that cached renders can skip it
+    private static final class Scoped {
+
+        private final String value;
+        private final Property.Predicate predicate;
+
+        private Scoped(String value, Property.Predicate predicate) {
+            this.value = value;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Scoped scoped = (Scoped) o;
+            return value.equals(scoped.value) && predicate.equals(scoped.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * value.hashCode() + predicate.hashCode();
         }
     }
 }
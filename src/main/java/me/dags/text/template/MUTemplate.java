@@ -50,28 +50,82 @@
 
 package me.dags.text.template;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import me.dags.template.Template;
+import me.dags.text.MUBudget;
 import me.dags.text.MUPerms;
 import me.dags.text.MUSpec;
 import me.dags.text.syntax.Property;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.transform.SimpleTextFormatter;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.HashMap;
 import java.util.Map;
 
 public class MUTemplate implements Template {
 
     public static final MUTemplate EMPTY = new MUTemplate(MUSpec.create(), Template.EMPTY, MUPerms.NONE);
 
+    private static final CacheStats NO_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
     final MUSpec spec;
     final Template template;
     final Property.Predicate predicate;
+    // null if the template's output can't be parsed ahead of its arguments
+    @Nullable
+    final Compiled compiled;
+    final Spliced spliced;
+    @Nullable
+    final Cache<RenderKey, Text> cache;
 
     public MUTemplate(MUSpec spec, Template template, Property.Predicate predicate) {
+        this(spec, template, predicate, Compiled.of(spec, template, predicate), Spliced.of(template), 0L);
+    }
+
+    private MUTemplate(MUSpec spec, Template template, Property.Predicate predicate, @Nullable Compiled compiled, Spliced spliced, long cacheSize) {
         this.spec = spec;
         this.template = template;
         this.predicate = predicate;
+        this.compiled = compiled;
+        this.spliced = spliced;
+        this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build() : null;
+    }
+
+    /**
+     * Returns a copy of this template that caches up to maximumSize renders, keyed by the arguments
+     * and the Predicate they were rendered for. As with MUSpec.withCache, subjects holding the same
+     * permissions share entries. Arguments are compared with equals().
+     */
+    public MUTemplate withCache(long maximumSize) {
+        return new MUTemplate(spec, template, predicate, compiled, spliced, maximumSize);
+    }
+
+    public boolean isCached() {
+        return cache != null;
+    }
+
+    public CacheStats getCacheStats() {
+        return cache == null ? NO_STATS : cache.stats();
+    }
+
+    public void invalidateCache() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * True if the markup of the template was parsed when it was created, so that rendering it with
+     * plain arguments only handles the arguments
+     */
+    public boolean isCompiled() {
+        return compiled != null;
     }
 
     @Override
@@ -83,6 +137,18 @@ public class MUTemplate implements Template {
         return applier().with(key, value);
     }
 
+    public MUApplier with(String key, Object value, Property.Predicate predicate) {
+        return applier().with(key, value, predicate);
+    }
+
+    public MUApplier with(String key, Object value, Subject subject) {
+        return applier().with(key, value, subject);
+    }
+
+    public MUApplier literal(String key, Object value) {
+        return applier().literal(key, value);
+    }
+
     public MUApplier with(Map map) {
         return applier().with(map);
     }
@@ -99,4 +165,45 @@ public class MUTemplate implements Template {
     public String toString() {
         return template.toString();
     }
+
+    static final class RenderKey {
+
+        private final Map<String, Object> arguments;
+        private final Property.Predicate predicate;
+        private final int hash;
+
+        private RenderKey(Map<String, Object> arguments, Property.Predicate predicate, int hash) {
+            this.arguments = arguments;
+            this.predicate = predicate;
+            this.hash = hash;
+        }
+
+        // a key over the applier's arguments as they are, to be copied if it's kept
+        RenderKey(Map<String, Object> arguments, Property.Predicate predicate) {
+            this.arguments = arguments;
+            this.predicate = MUBudget.unwrap(predicate);
+            this.hash = 31 * arguments.hashCode() + this.predicate.hashCode();
+        }
+
+        RenderKey copy() {
+            return new RenderKey(new HashMap<>(arguments), predicate, hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RenderKey key = (RenderKey) o;
+            return arguments.equals(key.arguments) && predicate.equals(key.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package me.dags.text.template;
+
+import me.dags.template.Template;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Property;
+import me.dags.text.syntax.Slots;
+import org.spongepowered.api.text.Text;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a template in full, for when it can't be compiled or its arguments can't fill the compiled
+ * slots. Each Text argument is written as a slot and spliced into the result, so it's never written
+ * as markup and parsed again. Private use chars that the template or its other arguments already hold
+ * are given slots of their own that are filled with themselves.
+ */
+final class Spliced {
+
+    // the slots found in the template's own text
+    private final BitSet literal;
+
+    private Spliced(BitSet literal) {
+        this.literal = literal;
+    }
+
+    Text render(MUSpec spec, Template template, Map<String, Object> arguments, Property.Predicate predicate) throws IOException {
+        boolean spliced = false;
+        BitSet used = (BitSet) literal.clone();
+        for (Object value : arguments.values()) {
+            if (value instanceof Text) {
+                spliced = true;
+            } else {
+                mark(value.toString(), used);
+            }
+        }
+        if (!spliced) {
+            return spec.render(predicate, apply(template, arguments));
+        }
+
+        // the Text arguments written as their plain text rather than as slots
+        Set<String> plain = new HashSet<>();
+        while (true) {
+            Map<String, Object> written = new HashMap<>(arguments);
+            Map<String, Integer> indices = new HashMap<>();
+            int next = 0;
+            for (Map.Entry<String, Object> entry : arguments.entrySet()) {
+                if (entry.getValue() instanceof Text) {
+                    if (plain.contains(entry.getKey())) {
+                        written.put(entry.getKey(), ((Text) entry.getValue()).toPlain());
+                        continue;
+                    }
+                    next = used.nextClearBit(next);
+                    if (next >= Slots.MAX_SLOTS) {
+                        return spec.render(predicate, apply(template, plain(arguments)));
+                    }
+                    indices.put(entry.getKey(), next);
+                    written.put(entry.getKey(), String.valueOf(Slots.slot(next++)));
+                }
+            }
+
+            Object[] values = new Object[Math.max(next, used.length())];
+            for (int i = used.nextSetBit(0); i != -1; i = used.nextSetBit(i + 1)) {
+                values[i] = String.valueOf(Slots.slot(i));
+            }
+            for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+                values[entry.getValue()] = arguments.get(entry.getKey());
+            }
+
+            String output = apply(template, written);
+            Slots slots = Slots.compile(output, values.length, spec.getPresets(), spec.getLimits(), predicate);
+            if (slots == null) {
+                return Slots.splice(output, values, predicate).build();
+            }
+            Text.Builder builder = slots.build(values, predicate);
+            if (builder != null) {
+                return builder.build();
+            }
+
+            // a Text filling a property resolved to no property, so is written as its plain text and
+            // parsed along with the property list, as a String argument would be
+            boolean retry = false;
+            for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+                if (slots.inProperty(entry.getValue())) {
+                    plain.add(entry.getKey());
+                    mark(((Text) arguments.get(entry.getKey())).toPlain(), used);
+                    retry = true;
+                }
+            }
+            if (!retry) {
+                // otherwise the output breaks the limits, as markup that's rendered as text does
+                return Slots.splice(output, values, predicate).build();
+            }
+        }
+    }
+
+    static Spliced of(Template template) {
+        BitSet literal = new BitSet();
+        try {
+            mark(apply(template, new Blank()), literal);
+        } catch (IOException | RuntimeException e) {
+            // the slots in use are found again from each output
+        }
+        return new Spliced(literal);
+    }
+
+    private static Map<String, Object> plain(Map<String, Object> arguments) {
+        Map<String, Object> plain = new HashMap<>(arguments);
+        for (Map.Entry<String, Object> entry : arguments.entrySet()) {
+            if (entry.getValue() instanceof Text) {
+                plain.put(entry.getKey(), ((Text) entry.getValue()).toPlain());
+            }
+        }
+        return plain;
+    }
+
+    private static void mark(String value, BitSet used) {
+        for (int i = 0; i < value.length(); i++) {
+            int slot = value.charAt(i) - Slots.slot(0);
+            if (slot >= 0 && slot < Slots.MAX_SLOTS) {
+                used.set(slot);
+            }
+        }
+    }
+
+    private static String apply(Template template, Map<String, Object> arguments) throws IOException {
+        StringWriter writer = new StringWriter();
+        template.apply(arguments, writer);
+        return writer.toString();
+    }
+
+    // answers every key with nothing, leaving the template's own text
+    private static class Blank extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return "";
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return true;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.template.MUTemplate;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+/**
+ * Fails when the bytes allocated per call on a hot path exceed the budget checked in to
+ * allocation.properties. Run with -Dallocation.record=true to print the measured values instead.
+ */
+public class AllocationTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final int WARMUP = 5000;
+    private static final int ITERATIONS = 2000;
+    private static final boolean RECORD = Boolean.getBoolean("allocation.record");
+    private static final Properties BUDGETS = budgets();
+
+    private static final String[] CORPUS = {
+            "hello everyone",
+            "check out the new shop at /warp market, prices are *really* low",
+            "[dags](gold): welcome to the server!",
+            "[[Vote](green,/vote) | [Shop](gold,/shop) | [Discord](blue,https://discord.gg/abc)](bold)",
+            "[/home](gold,/home,Teleports you to your [home](green))",
+            "**bold** and *italic* and __underlined__ and `code`",
+    };
+
+    private static final MUSpec SPEC = MUSpec.create(MUPresets.MARKDOWN);
+
+    @Test
+    public void test0() {
+        test("render", () -> {
+            for (String input : CORPUS) {
+                SPEC.render(input);
+            }
+        });
+    }
+
+    @Test
+    public void test1() {
+        Text[] texts = new Text[CORPUS.length];
+        for (int i = 0; i < CORPUS.length; i++) {
+            texts[i] = SPEC.render(CORPUS[i]);
+        }
+        test("write", () -> {
+            for (Text text : texts) {
+                SPEC.write(text);
+            }
+        });
+    }
+
+    @Test
+    public void test2() {
+        MUTemplate template = SPEC.template("[{name}](gold,/msg {name}): {message}");
+        test("template", () -> {
+            for (String input : CORPUS) {
+                template.with("name", "dags").with("message", input).render();
+            }
+        });
+    }
+
+    private static void test(String name, Runnable operation) {
+        com.sun.management.ThreadMXBean threads = threads();
+        Assume.assumeTrue("thread allocation measurement is unavailable", threads != null);
+
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        long result = (threads.getThreadAllocatedBytes(thread) - start) / ((long) ITERATIONS * CORPUS.length);
+        long budget = Long.parseLong(BUDGETS.getProperty(name));
+
+        System.out.println("Operation: " + name);
+        System.out.println("Result:    " + result + " bytes/call");
+        System.out.println("Budget:    " + budget + " bytes/call");
+        System.out.println();
+
+        if (RECORD) {
+            System.err.println(name + "=" + result);
+            return;
+        }
+        Assert.assertTrue(name + " allocated " + result + " bytes/call, over its budget of " + budget, result <= budget);
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+        if (!sun.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sun.setThreadAllocatedMemoryEnabled(true);
+        return sun;
+    }
+
+    private static Properties budgets() {
+        Properties properties = new Properties();
+        try (InputStream in = AllocationTests.class.getResourceAsStream("/allocation.properties")) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return properties;
+    }
+}
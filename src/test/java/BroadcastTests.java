@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import impl.TestSubject;
+import me.dags.text.MUSpec;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.text.Text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class BroadcastTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        Subject red = TestSubject.of("red", "text.color.red");
+        Subject plain = TestSubject.of("plain");
+        Subject both = TestSubject.of("both", "text.color.red", "text.color.blue");
+
+        Map<Subject, Text> results = MUSpec.global().renderForAll(Arrays.asList(red, plain, both), "hello [world](red)");
+
+        Text colored = Text.builder("hello ").append(Text.builder("world").color(TestColor.RED).build()).build();
+        Assert.assertEquals(colored, results.get(red));
+        Assert.assertEquals(colored, results.get(both));
+        Assert.assertSame(results.get(red), results.get(both));
+        Assert.assertEquals(Text.builder("hello ").append(Text.of("world")).build(), results.get(plain));
+    }
+
+    @Test
+    public void test1() {
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            subjects.add(i % 2 == 0 ? TestSubject.of("s" + i, "text.color.red") : TestSubject.of("s" + i));
+        }
+
+        Map<Subject, Text> results = MUSpec.global().renderForAll(subjects, "hello [world](red,bold)");
+
+        Assert.assertEquals(100, results.size());
+        Assert.assertEquals(2, results.values().stream().distinct().count());
+        for (Subject subject : subjects) {
+            Assert.assertEquals(MUSpec.global().render(subject, "hello [world](red,bold)"), results.get(subject));
+        }
+    }
+
+    @Test
+    public void test2() {
+        // subjects are only asked about the permissions the markup uses
+        List<Subject> subjects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            subjects.add(i % 2 == 0 ? TestSubject.of("s" + i, "text.color.red") : TestSubject.of("s" + i));
+        }
+
+        int before = TestSubject.CHECKS.get();
+        MUSpec.global().renderForAll(subjects, "hello [world](red,bold)");
+        Assert.assertTrue(TestSubject.CHECKS.get() - before <= 2 * subjects.size());
+
+        before = TestSubject.CHECKS.get();
+        Map<Subject, Text> results = MUSpec.global().renderForAll(subjects, "hello world");
+        Assert.assertEquals(0, TestSubject.CHECKS.get() - before);
+        Assert.assertEquals(Text.of("hello world"), results.get(subjects.get(0)));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MUBudget;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.HoverAction;
+
+public class BudgetTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        MUBudget budget = MUBudget.unlimited();
+        test(budget, "[a](red)", Text.builder("a").color(TestColor.RED).build());
+        Assert.assertEquals(8, budget.getChars());
+        Assert.assertEquals(1, budget.getNodes());
+        Assert.assertEquals(0, budget.getHovers());
+        Assert.assertTrue(budget.getChecks() > 0);
+        Assert.assertFalse(budget.isExhausted());
+    }
+
+    @Test
+    public void test1() {
+        // too expensive to parse so shown as plain text
+        MUBudget budget = MUBudget.of(10);
+        test(budget, "[a](red)", Text.of("[a](red)"));
+        Assert.assertTrue(budget.isExhausted());
+        Assert.assertEquals(0, budget.getRemaining());
+    }
+
+    @Test
+    public void test2() {
+        // the cost accumulates across renders until the budget runs out
+        MUBudget budget = MUBudget.of(60);
+        test(budget, "[a](red)", Text.builder("a").color(TestColor.RED).build());
+        long cost = budget.getCost();
+        test(budget, "[a](red)", Text.builder("a").color(TestColor.RED).build());
+        Assert.assertEquals(cost * 2, budget.getCost());
+        test(budget, "[a](red)", Text.of("[a](red)"));
+        budget.reset();
+        Assert.assertEquals(0, budget.getCost());
+        test(budget, "[a](red)", Text.builder("a").color(TestColor.RED).build());
+    }
+
+    @Test
+    public void test3() {
+        // enough to parse but not to check permissions, so the properties are left unapplied
+        MUBudget budget = MUBudget.of(8 * MUBudget.CHAR_COST + MUBudget.NODE_COST);
+        test(budget, "[a](red)", Text.of("a"));
+        Assert.assertTrue(budget.isExhausted());
+    }
+
+    @Test
+    public void test4() {
+        String hover = "hover " + System.nanoTime() + " [b](red)";
+        MUSpec spec = MUSpec.global().withHoverCache(16);
+        MUBudget budget = MUBudget.unlimited();
+        spec.render(MUPerms.ANY, "[a](" + hover + ")", budget);
+        Assert.assertEquals(1, budget.getHovers());
+        Assert.assertEquals(2, budget.getNodes());
+
+        // a cached hover isn't parsed again but its nodes still count
+        budget.reset();
+        spec.render(MUPerms.ANY, "[a](" + hover + ")", budget);
+        Assert.assertEquals(0, budget.getHovers());
+        Assert.assertEquals(2, budget.getNodes());
+    }
+
+    @Test
+    public void test5() {
+        // cached results are free, and results cut short by the budget aren't cached
+        MUSpec spec = MUSpec.global().withCache(16);
+        MUBudget budget = MUBudget.of(10);
+        Assert.assertEquals(Text.of("[a](red)"), spec.render(MUPerms.ANY, "[a](red)", budget));
+        Assert.assertEquals(Text.builder("a").color(TestColor.RED).build(), spec.render(MUPerms.ANY, "[a](red)"));
+        Assert.assertEquals(Text.builder("a").color(TestColor.RED).build(), spec.render(MUPerms.ANY, "[a](red)", budget));
+    }
+
+    @Test
+    public void test6() {
+        // budgeted predicates are equal to each other, never to the predicate they wrap
+        Property.Predicate a = MUBudget.of(10).wrap(MUPerms.ANY);
+        Property.Predicate b = MUBudget.of(20).wrap(MUPerms.ANY);
+        Assert.assertEquals(a, b);
+        Assert.assertNotEquals(a, MUPerms.ANY);
+        Assert.assertNotEquals(MUPerms.ANY, a);
+        Assert.assertSame(MUPerms.ANY, MUBudget.unwrap(a));
+
+        // but share cache entries with it
+        MUSpec spec = MUSpec.global().withCache(16);
+        spec.render(MUPerms.ANY, "[a](red)");
+        spec.render(a, "[a](red)");
+        Assert.assertEquals(1, spec.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void test7() {
+        // a hover built once the budget ran out isn't cached for renders that can afford it
+        MUSpec spec = MUSpec.global().withHoverCache(16);
+        String hover = "hi [b](red)";
+        String input = "[a](" + hover + ")";
+        // enough to parse the input and its hover, and to check the hover but not its red
+        long chars = input.length() + hover.length();
+        MUBudget budget = MUBudget.of(chars * MUBudget.CHAR_COST + 2 * MUBudget.NODE_COST + MUBudget.HOVER_COST + MUBudget.CHECK_COST);
+        Text stripped = hover(spec.render(MUPerms.ANY, input, budget));
+        Assert.assertTrue(budget.isExhausted());
+        Assert.assertEquals(Text.builder("hi ").append(Text.of("b")).build(), stripped);
+
+        Text expected = Text.builder("hi ").append(Text.builder("b").color(TestColor.RED).build()).build();
+        Assert.assertEquals(expected, hover(spec.render(MUPerms.ANY, input)));
+        Assert.assertEquals(expected, hover(spec.render(MUPerms.ANY, input, MUBudget.unlimited())));
+    }
+
+    private static Text hover(Text text) {
+        return text.getHoverAction().map(HoverAction::getResult).map(Text.class::cast).orElse(null);
+    }
+
+    private static void test(MUBudget budget, String input, Text expected) {
+        Text result = MUSpec.global().render(MUPerms.ANY, input, budget);
+        System.out.println("Input:    " + input);
+        System.out.println("Result:   " + result);
+        System.out.println("Expected: " + expected);
+        System.out.println("Cost:     " + budget.getCost());
+        System.out.println();
+        Assert.assertEquals(expected, result);
+    }
+}
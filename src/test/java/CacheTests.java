@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+public class CacheTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        MUSpec spec = MUSpec.create().withCache(16);
+        Text first = spec.render("hello [world](red)");
+        Text second = spec.render("hello [world](red)");
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, spec.getCacheStats().hitCount());
+        Assert.assertEquals(1, spec.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test1() {
+        MUSpec spec = MUSpec.create().withCache(16);
+        Text any = spec.render(MUPerms.ANY, "hello [world](red)");
+        Text none = spec.render(MUPerms.NONE, "hello [world](red)");
+        Assert.assertNotEquals(any, none);
+        Assert.assertEquals(2, spec.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test2() {
+        MUSpec spec = MUSpec.create().withCache(1);
+        spec.render("[one](red)");
+        spec.render("[two](red)");
+        spec.render("[one](red)");
+        Assert.assertEquals(0, spec.getCacheStats().hitCount());
+        Assert.assertEquals(3, spec.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test3() {
+        MUSpec spec = MUSpec.create();
+        spec.render("hello");
+        Assert.assertEquals(0, spec.getCacheStats().requestCount());
+    }
+}
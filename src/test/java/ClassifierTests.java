@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+import impl.Init;
+import impl.TestColor;
+import impl.TestStyle;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Classifier;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+
+public class ClassifierTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        test("red", Classifier.Kind.COLOR, TestColor.RED);
+        test("&c", Classifier.Kind.COLOR, TestColor.RED);
+        test("*red", Classifier.Kind.COLOR, TestColor.DARK_RED);
+        test("bld", Classifier.Kind.STYLE, TestStyle.BOLD);
+        test("_", Classifier.Kind.STYLE, TestStyle.ITALIC);
+    }
+
+    @Test
+    public void test1() {
+        test("/say hi", Classifier.Kind.COMMAND, null);
+        test("//say hi", Classifier.Kind.SUGGESTION, null);
+        test("https://github.com", Classifier.Kind.URL, null);
+        test("www.github.com/dags-", Classifier.Kind.URL, null);
+        test("localhost:8080", Classifier.Kind.URL, null);
+    }
+
+    @Test
+    public void test2() {
+        test("grren", Classifier.Kind.HOVER, null);
+        test("red text", Classifier.Kind.HOVER, null);
+        test("www", Classifier.Kind.HOVER, null);
+        test("", Classifier.Kind.NONE, null);
+    }
+
+    @Test
+    public void test3() {
+        Classifier.Token token = MUPresets.MARKDOWN.getClassifier().classify("strong");
+        Assert.assertEquals(Classifier.Kind.PRESET, token.getKind());
+
+        Text result = MUSpec.create(MUPresets.MARKDOWN).render("[a](strong) [b](grren)");
+        Assert.assertEquals(Text.builder("a")
+                .style(TestStyle.BOLD)
+                .append(Text.builder(" ")
+                        .append(Text.builder("b").onHover(TextActions.showText(Text.of("grren"))).build())
+                        .build())
+                .build(), result);
+
+        Text denied = MUSpec.create(MUPresets.MARKDOWN).render(property -> !"strong".equals(property), "[a](strong)");
+        Assert.assertEquals(Text.of("a"), denied);
+    }
+
+    private static void test(String token, Classifier.Kind kind, Object value) {
+        Classifier.Token result = MUPresets.NONE.getClassifier().classify(token);
+
+        System.out.println("---------------------------------------");
+        System.out.println("Input    : " + token);
+        System.out.println("Result   : " + result.getKind() + " " + result.getValue());
+        System.out.println("Expected : " + kind + " " + value);
+
+        Assert.assertEquals(kind, result.getKind());
+        Assert.assertEquals(value, result.getValue());
+    }
+}
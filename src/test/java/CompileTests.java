@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Node;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+
+public class CompileTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        MUSpec spec = MUSpec.global();
+        Node node = spec.compile("hello [world](red)");
+        Assert.assertEquals(spec.render(MUPerms.ANY, "hello [world](red)"), spec.render(MUPerms.ANY, node));
+        Assert.assertEquals(spec.render(MUPerms.NONE, "hello [world](red)"), spec.render(MUPerms.NONE, node));
+    }
+
+    @Test
+    public void test1() {
+        MUSpec spec = MUSpec.global();
+        Node node = spec.compile("[hover me]([some](red) hover text)");
+
+        Text all = spec.render(MUPerms.ANY, node);
+        Assert.assertEquals(
+                Text.builder("hover me")
+                        .onHover(TextActions.showText(Text.builder("some")
+                                .color(TestColor.RED)
+                                .append(Text.of(" hover text"))
+                                .build()))
+                        .build(),
+                all
+        );
+
+        Text noColor = spec.render(property -> property != TestColor.RED, node);
+        Assert.assertEquals(
+                Text.builder("hover me")
+                        .onHover(TextActions.showText(Text.builder("some")
+                                .append(Text.of(" hover text"))
+                                .build()))
+                        .build(),
+                noColor
+        );
+
+        Text noHover = spec.render(property -> !MUPerms.HOVER.equals(property), node);
+        Assert.assertEquals(Text.of("hover me"), noHover);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestStyle;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompletionTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final MUSpec SPEC = MUSpec.create(MUPresets.MARKDOWN);
+
+    @Test
+    public void test0() {
+        List<String> all = test(MUPerms.ANY, "hello [world](");
+        Assert.assertTrue(all.containsAll(Arrays.asList("red", "&c", "bold", "strong", "light")));
+        List<String> sorted = new ArrayList<>(all);
+        sorted.sort(String::compareTo);
+        Assert.assertEquals(sorted, all);
+    }
+
+    @Test
+    public void test1() {
+        List<String> names = test(MUPerms.ANY, "hello [world](bold, st");
+        Assert.assertTrue(names.containsAll(Arrays.asList("strike", "strikethrough", "strong")));
+        for (String name : names) {
+            Assert.assertTrue(name.startsWith("st"));
+        }
+        // within hovers
+        Assert.assertTrue(test(MUPerms.ANY, "[a](hover [b](gr").contains("green"));
+    }
+
+    @Test
+    public void test2() {
+        Property.Predicate predicate = p -> p != TestStyle.BOLD && !"strong".equals(p);
+        List<String> names = test(predicate, "[a](");
+        Assert.assertFalse(names.contains("bold"));
+        Assert.assertFalse(names.contains("strong"));
+        Assert.assertTrue(names.contains("light"));
+    }
+
+    @Test
+    public void test3() {
+        // nothing to complete outside of a property list
+        Assert.assertTrue(test(MUPerms.ANY, "hello").isEmpty());
+        Assert.assertTrue(test(MUPerms.ANY, "[a](red) b").isEmpty());
+        Assert.assertTrue(test(MUPerms.ANY, "[a](/say hi").isEmpty());
+        Assert.assertTrue(test(MUPerms.ANY, "\\[a](re").isEmpty());
+    }
+
+    private static List<String> test(Property.Predicate predicate, String input) {
+        List<String> result = SPEC.complete(predicate, input);
+        System.out.println("Input:    " + input);
+        System.out.println("Result:   " + result);
+        System.out.println();
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import me.dags.text.MUEvents;
+import me.dags.text.MUSpec;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class EventsTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() throws IOException {
+        Assume.assumeTrue(MUEvents.isAvailable());
+        List<RecordedEvent> events = record(0, "[a](red,[b](blue)) hi");
+        Assert.assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        System.out.println("Result: " + event);
+        Assert.assertEquals("parse", event.getString("operation"));
+        Assert.assertEquals("textmu:global", event.getString("spec"));
+        Assert.assertEquals(21, event.getInt("length"));
+        Assert.assertEquals(2, event.getInt("nodes"));
+        Assert.assertEquals(1, event.getInt("hovers"));
+    }
+
+    @Test
+    public void test1() throws IOException {
+        // fast operations stay out of the recording
+        Assume.assumeTrue(MUEvents.isAvailable());
+        Assert.assertTrue(record(TimeUnit.MINUTES.toNanos(1), "[a](red)").isEmpty());
+    }
+
+    @Test
+    public void test2() {
+        // not recording so no timing is done
+        Assume.assumeTrue(!MUEvents.isRecording());
+        Assert.assertEquals(0L, MUEvents.start());
+    }
+
+    private static List<RecordedEvent> record(long threshold, String input) throws IOException {
+        long previous = MUEvents.getThreshold(TimeUnit.NANOSECONDS);
+        Path file = Files.createTempFile("events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("me.dags.text.SlowMarkup");
+            recording.start();
+            MUEvents.setThreshold(threshold, TimeUnit.NANOSECONDS);
+            MUSpec.global().render(input);
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            MUEvents.setThreshold(previous, TimeUnit.NANOSECONDS);
+            Files.deleteIfExists(file);
+        }
+    }
+}
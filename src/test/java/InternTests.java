@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.HoverCache;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.HoverAction;
+
+import java.io.IOException;
+
+public class InternTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() throws IOException {
+        Assert.assertSame(Property.parse("red", MUPresets.NONE), Property.parse("&c", MUPresets.NONE));
+        Assert.assertSame(Property.parse("bold", MUPresets.NONE), Property.parse("bld", MUPresets.NONE));
+        Assert.assertSame(Property.parse("strong", MUPresets.MARKDOWN), Property.parse("strong", MUPresets.MARKDOWN));
+    }
+
+    @Test
+    public void test1() throws IOException {
+        HoverCache cache = HoverCache.of(16);
+        Assert.assertSame(hover("Click to teleport", MUPresets.NONE, cache), hover("Click to teleport", MUPresets.NONE, cache));
+        Assert.assertNotSame(hover("Click to teleport", MUPresets.NONE, cache), hover("Click to teleport", MUPresets.MARKDOWN, cache));
+        // hovers are only shared through a cache
+        Assert.assertNotSame(hover("Click to teleport", MUPresets.NONE, null), hover("Click to teleport", MUPresets.NONE, null));
+    }
+
+    @Test
+    public void test2() {
+        MUSpec spec = MUSpec.global().withHoverCache(16);
+        Text first = hover(spec.render(MUPerms.ANY, "[a](Open the [store](red))"));
+        Text second = hover(spec.render(MUPerms.ANY, "[b](Open the [store](red))"));
+        Assert.assertSame(first, second);
+
+        // one-off predicates still get the right text, they just aren't cached
+        Text noRed = hover(spec.render(property -> property != TestColor.RED, "[b](Open the [store](red))"));
+        Assert.assertNotEquals(first, noRed);
+        Assert.assertEquals("Open the store", noRed.toPlain());
+        Text denied = hover(spec.render(MUPerms.NONE, "[b](Open the [store](red))"));
+        Assert.assertNull(denied);
+
+        // and specs without a hover cache build each one afresh
+        MUSpec uncached = MUSpec.global();
+        Text built = hover(uncached.render(MUPerms.ANY, "[a](Open the [store](red))"));
+        Assert.assertEquals(first, built);
+        Assert.assertNotSame(built, hover(uncached.render(MUPerms.ANY, "[b](Open the [store](red))")));
+    }
+
+    private static Property hover(String in, MUPresets presets, HoverCache cache) throws IOException {
+        return Parser.compile("[a](" + in + ")", presets, MULimits.DEFAULT, null, cache).getChildren().get(0).getProperties().get(0);
+    }
+
+    private static Text hover(Text text) {
+        return text.getHoverAction().map(HoverAction::getResult).map(Text.class::cast).orElse(null);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Node;
+import me.dags.text.syntax.ParseListener;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+
+import java.io.IOException;
+
+public class LimitsTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test(timeout = 1000)
+    public void test0() {
+        // unclosed brackets used to recurse once each
+        String input = repeat("[", 5000) + repeat("[a](red)", 5000);
+        Assert.assertEquals(input, MUSpec.global().render(input).toPlain());
+        String unclosed = repeat("[", 5000);
+        Assert.assertEquals(unclosed, MUSpec.global().withLimits(MULimits.NONE).render(unclosed).toPlain());
+    }
+
+    @Test
+    public void test1() {
+        MULimits limits = MULimits.builder().maxDepth(2).build();
+        MUSpec spec = MUSpec.global().withLimits(limits);
+        test(spec, "[[a](red)](blue)", Text.builder("a").color(TestColor.BLUE).build());
+        test(spec, "[[[a](red)](blue)](red)", Text.of("[[[a](red)](blue)](red)"));
+    }
+
+    @Test
+    public void test2() {
+        MUSpec spec = MUSpec.global().withLimits(MULimits.builder().maxNodes(3).build());
+        test(spec, "[a](red)[b](red)[c](red)", Text.builder("a")
+                .color(TestColor.RED)
+                .append(Text.builder("b").color(TestColor.RED).build())
+                .append(Text.builder("c").color(TestColor.RED).build())
+                .build());
+        test(spec, "[a](red)[b](red)[c](red)[d](red)", Text.of("[a](red)[b](red)[c](red)[d](red)"));
+        // elements within hovers count towards the limit
+        test(spec, "[a]([b]([c](d)) [e](red))", Text.of("[a]([b]([c](d)) [e](red))"));
+    }
+
+    @Test
+    public void test3() {
+        MUSpec spec = MUSpec.global().withLimits(MULimits.builder().maxLength(8).build());
+        test(spec, "[a](red)", Text.builder("a").color(TestColor.RED).build());
+        test(spec, "[a](blue)", Text.of("[a](blue)"));
+    }
+
+    @Test
+    public void test4() {
+        MUSpec spec = MUSpec.global().withLimits(MULimits.builder().maxHoverDepth(1).build());
+        test(spec, "[a]([b]([c](d)))", Text.builder("a")
+                .onHover(TextActions.showText(Text.builder("b")
+                        .onHover(TextActions.showText(Text.of("[c](d)")))
+                        .build()))
+                .build());
+    }
+
+    @Test(timeout = 1000)
+    public void test5() {
+        // alternating delimiters pair up into one deeply nested chain
+        String input = repeat("*_", 10000);
+        Text result = MUSpec.create(MUPresets.MARKDOWN).render(input);
+        Assert.assertTrue(depth(result) <= MULimits.DEFAULT.getMaxDepth() + 1);
+    }
+
+    @Test(timeout = 5000)
+    public void test6() throws IOException {
+        // with no limits the depth of the tree is only bounded by the input
+        int depth = 100000;
+        MUSpec spec = MUSpec.global().withLimits(MULimits.NONE);
+        Node node = spec.compile(repeat("[", depth) + "a" + repeat("](red)", depth));
+        int[] opened = new int[1];
+        node.accept(new ParseListener() {
+            @Override
+            public void onOpen() {
+                opened[0]++;
+            }
+        }, MUPerms.ANY);
+        Assert.assertEquals(depth + 1, opened[0]);
+    }
+
+    private static int depth(Text text) {
+        int depth = 0;
+        for (Text child : text.getChildren()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+
+    private static String repeat(String unit, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(unit);
+        }
+        return builder.toString();
+    }
+
+    private static void test(MUSpec spec, String string, Text expected) {
+        Text result = spec.render(string);
+
+        System.out.println("---------------------------------------");
+        System.out.println("Input    : " + string);
+        System.out.println("Result   : " + result);
+        System.out.println("Expected : " + expected);
+
+        Assert.assertEquals(expected, result);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Classifier;
+import me.dags.text.syntax.ParseListener;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.format.TextColor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ListenerTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() throws IOException {
+        // concatenating the text events gives the plain text of the rendered Text
+        String[] inputs = {
+                "hello [world](red)",
+                "[a [b](blue) c](red,/say hi) d",
+                "*bold* _italic_ [x](hover [text](red))",
+                "[unclosed (red) and ] stray",
+        };
+        for (String input : inputs) {
+            StringBuilder plain = new StringBuilder();
+            Parser.parse(input, MUPresets.MARKDOWN, MULimits.DEFAULT, MUPerms.ANY, new ParseListener() {
+                @Override
+                public void onText(CharSequence text) {
+                    plain.append(text);
+                }
+            });
+            test(input, plain.toString(), MUSpec.create(MUPresets.MARKDOWN).render(input).toPlain());
+        }
+    }
+
+    @Test
+    public void test1() throws IOException {
+        List<String> events = new ArrayList<>();
+        Parser.parse("[a](red,/say hi,[b](blue))", MUPresets.NONE, MULimits.DEFAULT, MUPerms.ANY, new Recorder(events));
+        test("events", String.join(" ", events), "open open text:a property:COLOR property:COMMAND property:HOVER close close");
+    }
+
+    @Test
+    public void test2() throws IOException {
+        // denied properties are reported, and children of inlined elements are reported as the parent's
+        // (text following an element holds the elements after it)
+        List<String> events = new ArrayList<>();
+        Property.Predicate predicate = p -> !(p instanceof TextColor) || p == TestColor.BLUE;
+        Parser.parse("[[a](blue)](red) [b](red)", MUPresets.NONE, MULimits.DEFAULT, predicate, new Recorder(events));
+        test("events", String.join(" ", events), "open denied:COLOR open text:a property:COLOR close open text: open text:b denied:COLOR close close close");
+    }
+
+    private static void test(String input, String result, String expected) {
+        System.out.println("Input:    " + input);
+        System.out.println("Result:   " + result);
+        System.out.println("Expected: " + expected);
+        System.out.println();
+        Assert.assertEquals(expected, result);
+    }
+
+    private static class Recorder implements ParseListener {
+
+        private final List<String> events;
+
+        private Recorder(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onOpen() {
+            events.add("open");
+        }
+
+        @Override
+        public void onText(CharSequence text) {
+            events.add("text:" + text.toString().trim());
+        }
+
+        @Override
+        public void onProperty(Property property) {
+            events.add("property:" + property.getKind());
+        }
+
+        @Override
+        public void onPermissionDenied(Property property) {
+            Assert.assertNotEquals(Classifier.Kind.NONE, property.getKind());
+            events.add("denied:" + property.getKind());
+        }
+
+        @Override
+        public void onClose() {
+            events.add("close");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import me.dags.text.MUMetrics;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+
+public class MetricsTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        MUSpec spec = MUSpec.create(MUPresets.MARKDOWN).withMetrics();
+        Text text = spec.render("hello [world](red)");
+        spec.render("hello *world*");
+        spec.render(text);
+        spec.write(text);
+        spec.template("[{name}](gold)").with("name", "dags").render();
+        spec.applyPresets(MUPerms.ANY, "hello *world*");
+
+        MUMetrics metrics = spec.getMetrics();
+        // the template is compiled, so its output isn't rendered as a string
+        test(metrics, MUMetrics.Operation.RENDER, 2);
+        test(metrics, MUMetrics.Operation.RENDER_TEXT, 1);
+        test(metrics, MUMetrics.Operation.WRITE, 1);
+        test(metrics, MUMetrics.Operation.TEMPLATE, 1);
+        // the presets expanded rendering "hello *world*", and applyPresets
+        test(metrics, MUMetrics.Operation.PRESET, 2);
+
+        metrics.reset();
+        test(metrics, MUMetrics.Operation.RENDER, 0);
+    }
+
+    @Test
+    public void test1() {
+        // disabled by default
+        MUSpec spec = MUSpec.create();
+        spec.render("hello [world](red)");
+        Assert.assertFalse(spec.getMetrics().isEnabled());
+        test(spec.getMetrics(), MUMetrics.Operation.RENDER, 0);
+    }
+
+    @Test
+    public void test2() {
+        // metrics carry over to copies of the spec
+        MUSpec spec = MUSpec.create().withMetrics().withCache(16);
+        spec.render("hello [world](red)");
+        spec.render("hello [world](red)");
+        test(spec.getMetrics(), MUMetrics.Operation.RENDER, 2);
+    }
+
+    @Test
+    public void test3() {
+        MUMetrics metrics = MUMetrics.create();
+        for (int i = 0; i < 100; i++) {
+            metrics.record(MUMetrics.Operation.RENDER, System.nanoTime());
+        }
+        MUMetrics.Stats stats = metrics.getStats(MUMetrics.Operation.RENDER);
+        Assert.assertEquals(100, stats.getCount());
+        long p50 = stats.getPercentile(50, TimeUnit.NANOSECONDS);
+        long p99 = stats.getPercentile(99, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(p50 <= p99);
+        Assert.assertTrue(p99 <= stats.getMax(TimeUnit.NANOSECONDS));
+    }
+
+    private static void test(MUMetrics metrics, MUMetrics.Operation operation, long expected) {
+        MUMetrics.Stats stats = metrics.getStats(operation);
+        System.out.println("Operation: " + operation);
+        System.out.println("Result:    " + stats);
+        System.out.println("Expected:  count=" + expected);
+        System.out.println();
+        Assert.assertEquals(expected, stats.getCount());
+    }
+}
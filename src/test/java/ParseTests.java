@@ -26,13 +26,20 @@
 import impl.Init;
 import impl.TestColor;
 import impl.TestStyle;
+import me.dags.template.CharReader;
+import me.dags.text.MUPerms;
 import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.Property;
 import org.junit.Assert;
 import org.junit.Test;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.action.TextActions;
 import sun.awt.image.ImageWatched;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -155,6 +162,48 @@ public class ParseTests {
         );
     }
 
+    @Test
+    public void test12() {
+        // escaped property chars and a trailing unterminated property list
+        test(
+                "[a](`red,bold`)[b](red,",
+                Text.builder("a")
+                        .onHover(TextActions.showText(Text.of("red,bold")))
+                        .append(Text.of("["))
+                        .append(Text.builder("b](red,").color(TestColor.RED).build())
+                        .build()
+        );
+    }
+
+    @Test
+    public void test13() throws IOException {
+        String input = "hello [world](red)";
+        MUSpec spec = MUSpec.global();
+        Text expected = spec.render(input);
+        Assert.assertEquals(expected, spec.render(MUPerms.ANY, new StringReader(input)));
+        Assert.assertEquals(expected, spec.render(MUPerms.ANY, Parser.compile(new StringBuilder(input), MUPresets.NONE)));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void test14() throws IOException {
+        // the pre-compile API still builds the same Text
+        String input = "hello [world](red)";
+        Text expected = MUSpec.global().render(input);
+        Assert.assertEquals(expected, new Parser(new CharReader(input), MUPresets.NONE, MUPerms.ANY).parse().build());
+        Assert.assertEquals(expected, Parser.parse(new CharReader(input), MUPresets.NONE, MUPerms.ANY).build());
+
+        Text.Builder builder = Text.builder("a");
+        Property.parseColor(TestColor.RED, MUPerms.ANY).apply(builder);
+        Assert.assertEquals(Text.builder("a").color(TestColor.RED).build(), builder.build());
+        Assert.assertSame(Property.NONE, Property.parseColor(TestColor.RED, MUPerms.NONE));
+
+        // bound hovers build their text with the predicate they were parsed with
+        builder = Text.builder("a");
+        Property.parseHover("[b](red)", MUPresets.NONE, property -> property != TestColor.RED).apply(builder);
+        Assert.assertEquals(Text.builder("a").onHover(TextActions.showText(Text.of("b"))).build(), builder.build());
+    }
+
     private static void test(String string, Text expected) {
         Text result = MUSpec.global().render(string);
 
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import impl.TestSubject;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.text.Text;
+
+import java.util.concurrent.TimeUnit;
+
+public class PermsTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        MUPerms perms = MUPerms.of("test");
+        Subject subject = TestSubject.of("subject", "test.color.red", "test.action.hover");
+        MUPerms.Snapshot snapshot = perms.snapshot(subject);
+        Assert.assertTrue(snapshot.test(TestColor.RED));
+        Assert.assertTrue(snapshot.test(MUPerms.HOVER));
+        Assert.assertFalse(snapshot.test(TestColor.BLUE));
+        Assert.assertFalse(snapshot.test(MUPerms.URL));
+        Assert.assertFalse(snapshot.test("not a node"));
+    }
+
+    @Test
+    public void test1() {
+        MUPerms perms = MUPerms.of("test");
+        MUPerms.Snapshot a = perms.snapshot(TestSubject.of("a", "test.color.red"));
+        MUPerms.Snapshot b = perms.snapshot(TestSubject.of("b", "test.color.red"));
+        MUPerms.Snapshot c = perms.snapshot(TestSubject.of("c", "test.color.blue"));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, c);
+        Assert.assertNotEquals(a, MUPerms.of("test").snapshot(TestSubject.of("d", "test.color.red")));
+    }
+
+    @Test
+    public void test2() {
+        MUPerms perms = MUPerms.builder("test").color(TestColor.RED).expireSnapshotsAfter(1, TimeUnit.MINUTES).build();
+        Subject subject = TestSubject.of("subject", "test.color.red");
+
+        int before = TestSubject.CHECKS.get();
+        MUPerms.Snapshot first = perms.snapshot(subject);
+        MUPerms.Snapshot second = perms.snapshot(subject);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, TestSubject.CHECKS.get() - before);
+
+        perms.invalidate(subject);
+        Assert.assertNotSame(first, perms.snapshot(subject));
+        Assert.assertEquals(2, TestSubject.CHECKS.get() - before);
+    }
+
+    @Test
+    public void test3() {
+        MUSpec spec = MUSpec.global().withCache(16);
+        spec.render(TestSubject.of("a", "text.color.red"), "hello [world](red)");
+        spec.render(TestSubject.of("b", "text.color.red"), "hello [world](red)");
+        Assert.assertEquals(1, spec.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void test4() {
+        // without expireSnapshotsAfter each snapshot sees the subject's current permissions
+        MUPerms perms = MUPerms.builder("test").color(TestColor.RED).build();
+        Subject subject = TestSubject.of("subject", "test.color.red");
+
+        int before = TestSubject.CHECKS.get();
+        MUPerms.Snapshot first = perms.snapshot(subject);
+        MUPerms.Snapshot second = perms.snapshot(subject);
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(first.test(TestColor.RED));
+        Assert.assertTrue(second.test(TestColor.RED));
+        Assert.assertEquals(2, TestSubject.CHECKS.get() - before);
+    }
+
+    @Test
+    public void test5() {
+        // properties are tested by their permission id and agree with testing the permission itself
+        MUPerms perms = MUPerms.of("test");
+        MUPerms.Snapshot snapshot = perms.snapshot(TestSubject.of("subject", "test.color.red", "test.action.url"));
+        Assert.assertTrue(snapshot.test(Property.parseColor(TestColor.RED)));
+        Assert.assertFalse(snapshot.test(Property.parseColor(TestColor.BLUE)));
+        Assert.assertTrue(snapshot.test(Property.parseURL("https://github.com")));
+        Assert.assertFalse(snapshot.test(Property.parseCommand("/say hi")));
+        Assert.assertFalse(snapshot.test(Property.of("not a node", (b, p) -> {})));
+        Assert.assertFalse(Property.NONE.test(snapshot));
+    }
+
+    @Test
+    public void test6() {
+        // a render only asks about the nodes its markup uses, each once
+        MUSpec spec = MUSpec.create(MUPerms.of("test"));
+        Subject subject = TestSubject.of("subject", "test.color.red");
+
+        int before = TestSubject.CHECKS.get();
+        Assert.assertEquals(Text.builder("a").color(TestColor.RED).build(), spec.render(subject, "[a](red)"));
+        Assert.assertEquals(1, TestSubject.CHECKS.get() - before);
+
+        before = TestSubject.CHECKS.get();
+        spec.render(subject, "[a](red) [b](red,bold) [c](blue)");
+        Assert.assertEquals(3, TestSubject.CHECKS.get() - before);
+    }
+
+    @Test
+    public void test7() {
+        // comparing snapshots completes them, after which the subject isn't asked again
+        MUPerms perms = MUPerms.builder("test").color(TestColor.RED).color(TestColor.BLUE).build();
+        MUPerms.Snapshot a = perms.snapshot(TestSubject.of("a", "test.color.red"));
+        Assert.assertTrue(a.test(TestColor.RED));
+        Assert.assertEquals(a, perms.snapshot(TestSubject.of("b", "test.color.red")));
+
+        int before = TestSubject.CHECKS.get();
+        Assert.assertTrue(a.test(TestColor.RED));
+        Assert.assertFalse(a.test(TestColor.BLUE));
+        Assert.assertEquals(0, TestSubject.CHECKS.get() - before);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestSubject;
+import me.dags.text.MUBudget;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Parser;
+import me.dags.text.syntax.SyntaxChars;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.text.Text;
+
+import java.io.IOException;
+
+public class PlainTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final MUPresets PRESETS = MUPresets.builder()
+            .add('*', "strong", "bold")
+            .add("\u00a7\u00a7", "section", "red")
+            .build();
+
+    @Test
+    public void test0() {
+        SyntaxChars chars = PRESETS.getSyntaxChars();
+        for (char c : "[]\\`*\u00a7".toCharArray()) {
+            Assert.assertTrue(chars.contains(c));
+        }
+        for (char c : "abc (),_~\u0000\u007f\uffff".toCharArray()) {
+            Assert.assertFalse(chars.contains(c));
+        }
+        Assert.assertEquals(4, chars.indexIn("abc \u00a7d", 0, 6));
+        Assert.assertEquals(-1, chars.indexIn("abc *d", 0, 4));
+        Assert.assertTrue(MUPresets.NONE.getSyntaxChars().isPlain("*bold* _italic_"));
+    }
+
+    @Test
+    public void test1() {
+        MUSpec spec = MUSpec.create(PRESETS);
+        test(spec, "hello everyone");
+        test(spec, "where is the portal (the one by the lake)?");
+        test(spec, "");
+        test(spec, "*bold* and \u00a7\u00a7red\u00a7\u00a7");
+        test(spec, "just a \u00a7 sign");
+    }
+
+    @Test
+    public void test2() {
+        // the budget is charged the same whether or not the input is parsed
+        MUSpec spec = MUSpec.create(PRESETS);
+        MUBudget budget = MUBudget.of(100);
+        spec.render(MUPerms.ANY, "hello everyone", budget);
+        Assert.assertEquals("hello everyone".length() * MUBudget.CHAR_COST, budget.getCost());
+
+        MUSpec limited = spec.withLimits(MULimits.builder().maxLength(4).build());
+        budget.reset();
+        Assert.assertEquals(Text.of("hello"), limited.render(MUPerms.ANY, "hello", budget));
+        Assert.assertEquals(0, budget.getCost());
+    }
+
+    @Test
+    public void test3() {
+        // plain input skips the cache entirely
+        MUSpec spec = MUSpec.create().withCache(16);
+        spec.render("hello");
+        spec.render("hello");
+        Assert.assertEquals(0, spec.getCacheStats().requestCount());
+    }
+
+    @Test
+    public void test4() {
+        // plain input from a subject never asks about its permissions
+        MUSpec spec = MUSpec.create(PRESETS);
+        Subject subject = TestSubject.of("subject", "text.color.red");
+        int before = TestSubject.CHECKS.get();
+        Assert.assertEquals(Text.of("hello everyone"), spec.render(subject, "hello everyone"));
+        Assert.assertEquals("hello everyone", spec.strip(subject, "hello everyone"));
+        Assert.assertTrue(spec.validate(subject, "hello everyone").isEmpty());
+        Assert.assertTrue(spec.complete(subject, "hello everyone").isEmpty());
+        Assert.assertEquals(0, TestSubject.CHECKS.get() - before);
+    }
+
+    private static void test(MUSpec spec, String input) {
+        Text result = spec.render(MUPerms.ANY, input);
+        Text expected;
+        try {
+            expected = Parser.parse(input, spec.getPresets(), MUPerms.ANY).build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        System.out.println("Input: " + input);
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import impl.TestStyle;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+public class PresetTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        test("hello *world*", Text.builder("hello ")
+                .append(Text.builder("world").style(TestStyle.BOLD).build())
+                .build());
+    }
+
+    @Test
+    public void test1() {
+        test("*a _b_ c*", Text.builder("a ")
+                .style(TestStyle.BOLD)
+                .append(Text.builder("b").style(TestStyle.ITALIC).build())
+                .append(Text.of(" c"))
+                .build());
+    }
+
+    @Test
+    public void test2() {
+        test("*a _b* c_", Text.builder("*a ")
+                .append(Text.builder("b* c").style(TestStyle.ITALIC).build())
+                .build());
+    }
+
+    @Test
+    public void test3() {
+        test("*unclosed", Text.of("*unclosed"));
+    }
+
+    @Test
+    public void test4() {
+        test("a *b* c [d](blue) *e*", Text.builder("a ")
+                .append(Text.builder("b").style(TestStyle.BOLD).build())
+                .append(Text.of(" c "))
+                .append(Text.builder("d").color(TestColor.BLUE).build())
+                .append(Text.builder(" ").append(Text.builder("e").style(TestStyle.BOLD).build()).build())
+                .build());
+    }
+
+    @Test
+    public void test5() {
+        // escaped delimiters are not treated as presets
+        test("\\*escaped\\* `*string*`", Text.of("*escaped* *string*"));
+    }
+
+    @Test
+    public void test6() {
+        Property.Predicate noBold = property -> !"strong".equals(property);
+        Text result = MUSpec.create(MUPresets.MARKDOWN).render(noBold, "*a _b_ c*");
+        Assert.assertEquals(Text.builder("*a ")
+                .append(Text.builder("b").style(TestStyle.ITALIC).build())
+                .append(Text.of(" c*"))
+                .build(), result);
+    }
+
+    @Test
+    public void test7() {
+        Text result = MUSpec.create(MUPresets.MARKDOWN).render(MUPerms.NONE, "*a _b_ c*");
+        Assert.assertEquals(Text.of("*a _b_ c*"), result);
+    }
+
+    @Test
+    public void test8() {
+        MUPresets presets = MUPresets.builder()
+                .add("**", "strong", "bold")
+                .add('*', "light", "italic")
+                .add("||", "spoiler", "obfuscated")
+                .build();
+        Text result = MUSpec.create(presets).render("**a *b* c** ||d|| |e|");
+        Assert.assertEquals(Text.builder("a ")
+                .style(TestStyle.BOLD)
+                .append(Text.builder("b").style(TestStyle.ITALIC).build())
+                .append(Text.of(" c"))
+                .append(Text.builder(" ")
+                        .append(Text.builder("d").style(TestStyle.OBFUSCATED).build())
+                        .append(Text.of(" |e|"))
+                        .build())
+                .build(), result);
+    }
+
+    @Test
+    public void test9() {
+        // unclosed alternating delimiters used to recurse once per delimiter
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            input.append("*_");
+        }
+        input.append('~');
+        String result = MUPresets.MARKDOWN.apply(input.toString(), MUPerms.ANY);
+        Assert.assertEquals('~', result.charAt(result.length() - 1));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void test10() {
+        MUPresets presets = MUPresets.builder()
+                .add('*', "strong", "bold")
+                .add("~~", "strike", "strikethrough")
+                .build();
+        Assert.assertEquals(2, presets.getDelimitedStyles().size());
+        Assert.assertEquals(1, presets.getStyles().size());
+        Assert.assertEquals("strong", presets.getStyles().get('*').getName());
+    }
+
+    @Test
+    public void test11() {
+        // escaped delimiters are literal text and never open or close a preset
+        test("\\*a\\*", Text.of("*a*"));
+        test("\\*a*", Text.of("*a*"));
+        test("`*a*`", Text.of("*a*"));
+        test("*a\\*b*", Text.builder("a*b").style(TestStyle.BOLD).build());
+    }
+
+    private static void test(String string, Text expected) {
+        Text result = MUSpec.create(MUPresets.MARKDOWN).render(string);
+
+        System.out.println("---------------------------------------");
+        System.out.println("Input    : " + string);
+        System.out.println("Result   : " + result);
+        System.out.println("Expected : " + expected);
+
+        Assert.assertEquals(expected, result);
+    }
+}
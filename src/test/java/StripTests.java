@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final MUSpec SPEC = MUSpec.create(MUPresets.MARKDOWN);
+
+    @Test
+    public void test0() {
+        test(MUPerms.ANY, "hello [world](red,[hover](blue))", "hello world");
+        test(MUPerms.ANY, "[a [b](red) c](blue) \\[d\\] `[e](f)`", "a b c [d] [e](f)");
+    }
+
+    @Test
+    public void test1() {
+        test(MUPerms.ANY, "*bold* and _italic [x](red)_ *unclosed", "bold and _italic x_ *unclosed");
+        // denied presets are left as literal text
+        test(p -> !"strong".equals(p), "*bold* _italic_", "*bold* italic");
+    }
+
+    @Test
+    public void test2() {
+        // markup that fails to parse is shown as written
+        test(MUPerms.ANY, "[a](red [b] ] [c", "[a](red [b] ] [c");
+        // an empty element with no properties is dropped, so the delimiters either side of it pair up
+        test(MUPerms.ANY, "x [](red) *y []() z*", "x  y  z");
+    }
+
+    @Test
+    public void test3() {
+        MUSpec spec = SPEC.withLimits(MULimits.builder().maxDepth(1).build());
+        Assert.assertEquals("[[a](red)](blue)", spec.strip("[[a](red)](blue)"));
+        StringBuilder out = new StringBuilder("> ");
+        spec.strip(MUPerms.ANY, "[a](red)", out);
+        Assert.assertEquals("> a", out.toString());
+    }
+
+    private static void test(Property.Predicate predicate, String input, String expected) {
+        String result = SPEC.strip(predicate, input);
+        System.out.println("Input:    " + input);
+        System.out.println("Result:   " + result);
+        System.out.println("Expected: " + expected);
+        System.out.println();
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(SPEC.render(predicate, input).toPlain(), result);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestSubject;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.template.MUTemplate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+public class TemplateCacheTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final MUSpec SPEC = MUSpec.create(MUPerms.of("test"));
+
+    @Test
+    public void test0() {
+        MUTemplate template = SPEC.template("[{name}](gold): {message}").withCache(16);
+        Text first = template.with("name", "dags").with("message", "hi").render();
+        Text second = template.with("name", "dags").with("message", "hi").render();
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, template.getCacheStats().hitCount());
+        Assert.assertEquals(1, template.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test1() {
+        // subjects holding the same permissions share entries, others don't
+        MUTemplate template = SPEC.template("[{name}](red)").withCache(16);
+        Text a = template.with("name", "dags").subject(TestSubject.of("a", "test.color.red")).render();
+        Text b = template.with("name", "dags").subject(TestSubject.of("b", "test.color.red")).render();
+        Text c = template.with("name", "dags").subject(TestSubject.of("c")).render();
+        Assert.assertSame(a, b);
+        Assert.assertNotEquals(a, c);
+        Assert.assertEquals(1, template.getCacheStats().hitCount());
+        Assert.assertEquals(2, template.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test2() {
+        // arguments scoped to a predicate are keyed by it too
+        MUTemplate template = SPEC.template("{name}: {message}").withCache(16);
+        Text any = template.with("name", "dags").with("message", "[hi](red)", MUPerms.ANY).render();
+        Text none = template.with("name", "dags").with("message", "[hi](red)", MUPerms.NONE).render();
+        Text literal = template.with("name", "dags").literal("message", "[hi](red)").render();
+        Assert.assertNotEquals(any, none);
+        Assert.assertNotEquals(none, literal);
+        Assert.assertEquals(3, template.getCacheStats().missCount());
+        Assert.assertSame(none, template.with("name", "dags").with("message", "[hi](red)", MUPerms.NONE).render());
+    }
+
+    @Test
+    public void test3() {
+        MUTemplate template = SPEC.template("{name}").withCache(1);
+        template.with("name", "one").render();
+        template.with("name", "two").render();
+        template.with("name", "one").render();
+        Assert.assertEquals(0, template.getCacheStats().hitCount());
+        Assert.assertEquals(3, template.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test4() {
+        MUTemplate template = SPEC.template("{name}").withCache(16);
+        Text first = template.with("name", "dags").render();
+        template.invalidateCache();
+        Text second = template.with("name", "dags").render();
+        Assert.assertEquals(first, second);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, template.getCacheStats().missCount());
+    }
+
+    @Test
+    public void test5() {
+        MUTemplate template = SPEC.template("{name}");
+        template.with("name", "dags").render();
+        Assert.assertFalse(template.isCached());
+        Assert.assertEquals(0, template.getCacheStats().requestCount());
+        Assert.assertTrue(template.withCache(16).isCached());
+    }
+}
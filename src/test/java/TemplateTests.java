@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import impl.TestStyle;
+import impl.TestSubject;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.template.MUTemplate;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.service.permission.Subject;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.action.TextActions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TemplateTests {
+
+    static {
+        Init.init();
+    }
+
+    private static final MUSpec SPEC = MUSpec.create(MUPresets.MARKDOWN);
+
+    @Test
+    public void test0() {
+        MUTemplate template = SPEC.template("[{name}](gold,/msg {name}): *{message}*");
+        Assert.assertTrue(template.isCompiled());
+        test(template, "dags", "hello, world (again)");
+        test(template, "dags", "anyone want to go mining later?");
+    }
+
+    @Test
+    public void test1() {
+        // arguments holding markup are rendered along with the rest of the template
+        MUTemplate template = SPEC.template("[{name}](gold): {message}");
+        test(template, "dags", "[hello](red) *world*");
+        test(template, "[dags]", "hi");
+        test(template, "", "hi");
+    }
+
+    @Test
+    public void test2() {
+        // slots within property lists can't take values that would change the list
+        MUTemplate template = SPEC.template("[{name}](gold,//msg {name} ,Click to message {name}): {message}");
+        Assert.assertTrue(template.isCompiled());
+        test(template, "dags", "hi");
+        test(template, "dags,red", "hi");
+        test(template, "dags)", "hi");
+    }
+
+    @Test
+    public void test3() {
+        // children without slots are built once and shared by every render
+        MUTemplate template = SPEC.template("{name} [joined the server](gray,italic)");
+        Text first = template.with("name", "dags").render();
+        Text second = template.with("name", "someone").render();
+        Assert.assertEquals("someone joined the server", second.toPlain());
+        Assert.assertSame(first.getChildren().get(0), second.getChildren().get(0));
+    }
+
+    @Test
+    public void test4() {
+        // Text arguments are spliced in as they are, and don't need to be plain
+        Text name = Text.builder("[dags]").color(TestColor.RED).style(TestStyle.BOLD).build();
+        MUTemplate template = SPEC.template("[{name}](gold): {message}");
+        Text result = template.with("name", name).with("message", "hi").render();
+        Text expected = Text.builder("").append(name).color(TestColor.GOLD).append(Text.of(": hi")).build();
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+        Assert.assertSame(name, template.with("name", name).getParameters().get("name"));
+    }
+
+    @Test
+    public void test5() {
+        // within a property the Text's plain text is used
+        Text name = Text.of(TestColor.RED, "dags");
+        Text result = SPEC.template("[msg](/msg {name})").with("name", name).render();
+        Text expected = Text.builder("msg").onClick(TextActions.runCommand("/msg dags")).build();
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+
+        // and markup arguments alongside Text render the whole template, with the Text still spliced in
+        MUTemplate template = SPEC.template("{name}: {message}");
+        result = template.with("name", name).with("message", "[hi](blue)").render();
+        expected = Text.builder("").append(name, Text.of(": "), SPEC.render("[hi](blue)")).build();
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+    }
+
+    @Test
+    public void test6() {
+        // only the message is rendered under the sender's permissions
+        MUTemplate format = SPEC.template("[{prefix}](gold) {name}: {message}");
+        Subject sender = TestSubject.of("sender");
+        Text result = format.literal("prefix", "VIP").with("name", "dags").with("message", "[hi](red)", sender).render();
+        Text message = SPEC.render(sender, "[hi](red)");
+        Text expected = Text.builder("")
+                .append(Text.of("VIP"))
+                .color(TestColor.GOLD)
+                .append(Text.builder(" dags: ").append(message).build())
+                .build();
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(message, format.with("message", "[hi](red)", MUPerms.NONE).getParameters().get("message"));
+    }
+
+    @Test
+    public void test7() {
+        // literal arguments are never parsed, even when the template renders in full
+        MUTemplate template = SPEC.template("{a} {b}");
+        Assert.assertEquals("[x](red) y", template.literal("a", "[x](red)").with("b", "[y](blue)").render().toPlain());
+        Assert.assertEquals("[x](red) *y*", template.literal("a", "[x](red)").literal("b", "*y*").render().toPlain());
+    }
+
+    @Test
+    public void test8() {
+        // a Text whose plain text resolves to no property is parsed along with the property list
+        Text blank = Text.of(TestColor.RED, " ");
+        Text result = SPEC.template("[msg]({name}) {message}").with("name", blank).with("message", "*hi*").render();
+        Text expected = SPEC.render("[msg]( ) *hi*");
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+
+        // and output that breaks the limits is kept as text, still with the Text spliced in
+        Text name = Text.of(TestColor.RED, "dags");
+        MUSpec spec = MUSpec.create(MUPresets.MARKDOWN).withLimits(MULimits.builder().maxLength(8).build());
+        result = spec.template("{name}: {message}").with("name", name).with("message", "*hi there*").render();
+        expected = Text.builder("").append(name, Text.of(": *hi there*")).build();
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+    }
+
+    @Test
+    public void test9() {
+        // Text is already rendered so can't be scoped
+        try {
+            SPEC.template("{message}").with("message", Text.of("hi"), MUPerms.NONE);
+            Assert.fail("Expected the scoped Text to be rejected");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Result: " + e.getMessage());
+        }
+    }
+
+    private static void test(MUTemplate template, String name, String message) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("name", name);
+        arguments.put("message", message);
+        Text result = template.with(arguments).render();
+        Text expected = SPEC.render(template.toString()
+                .replace("{name}", name)
+                .replace("{message}", message));
+        System.out.println("Input: " + template + " " + arguments);
+        System.out.println("Result: " + result);
+        System.out.println("Expected: " + expected);
+        Assert.assertEquals(expected, result);
+    }
+}
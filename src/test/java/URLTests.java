@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+import impl.Init;
+import me.dags.text.MUSpec;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongepowered.api.text.Text;
+
+public class URLTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        test("https://google.com", true);
+        test("http://www.google.com/search?q=1&x=[a]", true);
+        test("ftps://files.example.net:21/path", true);
+        test("www.google.com", true);
+        test("google.com", true);
+        test("localhost:8080", true);
+        test("a.b.c.co.uk/", true);
+    }
+
+    @Test
+    public void test1() {
+        test("google", false);
+        test("google.c", false);
+        test("google.com.", false);
+        test("google..com", false);
+        test("Google.com", false);
+        test("google.com/a b", false);
+        test("localhost:", false);
+        test("http://", false);
+        test("hello there", false);
+    }
+
+    @Test(timeout = 1000)
+    public void test2() {
+        // each of these backtracks exponentially against the old pattern
+        test(repeat("a.com", "/", 10000) + " ", false);
+        test(repeat("a", ".ab", 10000) + "!", false);
+        test(repeat("", "a-", 10000) + ".", false);
+        test(repeat("http://a.com", "/a/", 10000) + "\n", false);
+    }
+
+    @Test(timeout = 1000)
+    public void test3() {
+        String hover = repeat("[hover](a.com", "/", 10000) + " x)";
+        Text result = MUSpec.global().render(hover);
+        Assert.assertEquals("hover", result.toPlain());
+    }
+
+    private static String repeat(String prefix, String unit, int count) {
+        StringBuilder builder = new StringBuilder(prefix);
+        for (int i = 0; i < count; i++) {
+            builder.append(unit);
+        }
+        return builder.toString();
+    }
+
+    private static void test(String string, boolean expected) {
+        boolean result = Property.isURL(string);
+
+        System.out.println("---------------------------------------");
+        System.out.println("Input    : " + (string.length() > 40 ? string.substring(0, 40) + "..." : string));
+        System.out.println("Result   : " + result);
+        System.out.println("Expected : " + expected);
+
+        Assert.assertEquals(expected, result);
+    }
+}
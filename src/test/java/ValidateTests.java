@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 dags
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+import impl.Init;
+import impl.TestColor;
+import me.dags.text.MUError;
+import me.dags.text.MULimits;
+import me.dags.text.MUPerms;
+import me.dags.text.MUSpec;
+import me.dags.text.preset.MUPresets;
+import me.dags.text.syntax.Property;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ValidateTests {
+
+    static {
+        Init.init();
+    }
+
+    @Test
+    public void test0() {
+        test(MUPerms.ANY, "hello [world](red,bold,/say hi,https://github.com) [x] ] \\[ `[`", "");
+        test(MUPerms.ANY, "[a](red,[b](blue))", "");
+    }
+
+    @Test
+    public void test1() {
+        test(MUPerms.ANY, "a [b [c](red)", "UNCLOSED_ELEMENT[2,3]");
+        test(MUPerms.ANY, "[a](red, bold", "UNCLOSED_PROPERTIES[3,13]");
+    }
+
+    @Test
+    public void test2() {
+        // urls without a scheme are dropped when rendered
+        test(MUPerms.ANY, "[a](red,,github.com)", "UNKNOWN_PROPERTY[8,8] UNKNOWN_PROPERTY[9,19]");
+        test(MUPerms.ANY, "[a](www.github.com)", "UNKNOWN_PROPERTY[4,18]");
+    }
+
+    @Test
+    public void test3() {
+        Property.Predicate predicate = p -> p != TestColor.RED && !MUPerms.COMMAND.equals(p);
+        test(predicate, "[a](red, blue, /say hi)", "DENIED_PROPERTY[4,7] DENIED_PROPERTY[15,22]");
+        // hovers are checked in place
+        test(predicate, "[a](hover [b](red) [c)", "DENIED_PROPERTY[14,17] UNCLOSED_ELEMENT[19,20]");
+        test(MUPerms.NONE, "[a](hover [b](red))", "DENIED_PROPERTY[4,18]");
+    }
+
+    @Test
+    public void test4() {
+        MUSpec spec = MUSpec.global().withLimits(MULimits.builder().maxDepth(1).build());
+        List<MUError> errors = spec.validate(MUPerms.ANY, "[[a](red)](blue)");
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals(MUError.Type.LIMIT_EXCEEDED, errors.get(0).getType());
+    }
+
+    private static void test(Property.Predicate predicate, String input, String expected) {
+        List<MUError> errors = MUSpec.create(MUPresets.MARKDOWN).validate(predicate, input);
+        StringBuilder result = new StringBuilder();
+        for (MUError error : errors) {
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(error.getType()).append('[').append(error.getStart()).append(',').append(error.getEnd()).append(']');
+        }
+        System.out.println("Input:    " + input);
+        System.out.println("Result:   " + errors);
+        System.out.println("Expected: " + expected);
+        System.out.println();
+        Assert.assertEquals(expected, result.toString());
+    }
+}